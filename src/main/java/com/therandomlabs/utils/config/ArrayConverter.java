@@ -47,7 +47,7 @@ final class ArrayConverter {
 		}
 
 		if (primitiveArray instanceof boolean[]) {
-			return ArrayUtils.toObject((byte[]) primitiveArray);
+			return ArrayUtils.toObject((boolean[]) primitiveArray);
 		}
 
 		if (primitiveArray instanceof byte[]) {
@@ -75,7 +75,7 @@ final class ArrayConverter {
 		}
 
 		if (primitiveArray instanceof short[]) {
-			return ArrayUtils.toObject((long[]) primitiveArray);
+			return ArrayUtils.toObject((short[]) primitiveArray);
 		}
 
 		return (Object[]) primitiveArray;
@@ -0,0 +1,118 @@
+package com.therandomlabs.utils.config;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Locale;
+
+//A non-negative number of bytes, e.g. for cache or buffer sizes.
+//Sizes are written as a number followed by a unit: B, KB, MB, GB, TB or PB for powers of 1000,
+//or KiB, MiB, GiB, TiB or PiB (or K, M, G, T or P) for powers of 1024.
+//Units are case-insensitive, and fractional amounts such as 1.5 GiB are rounded to the nearest
+//byte.
+public final class ByteSize implements Comparable<ByteSize> {
+	private static final String[] UNITS = {"K", "M", "G", "T", "P"};
+
+	private final long bytes;
+
+	private ByteSize(long bytes) {
+		this.bytes = bytes;
+	}
+
+	public static ByteSize of(long bytes) {
+		if (bytes < 0) {
+			throw new IllegalArgumentException("Byte sizes may not be negative: " + bytes);
+		}
+
+		return new ByteSize(bytes);
+	}
+
+	//Throws an IllegalArgumentException if the size is invalid
+	public static ByteSize parse(String size) {
+		final String trimmed = size.trim();
+		int unitIndex = 0;
+
+		while (unitIndex < trimmed.length() && (Character.isDigit(trimmed.charAt(unitIndex)) ||
+				trimmed.charAt(unitIndex) == '.')) {
+			unitIndex++;
+		}
+
+		if (unitIndex == 0) {
+			throw new IllegalArgumentException("Invalid byte size: " + size);
+		}
+
+		final BigDecimal amount = new BigDecimal(trimmed.substring(0, unitIndex));
+		final long multiplier = getMultiplier(trimmed.substring(unitIndex).trim(), size);
+
+		try {
+			return of(amount.multiply(BigDecimal.valueOf(multiplier)).
+					setScale(0, RoundingMode.HALF_UP).longValueExact());
+		} catch (ArithmeticException ex) {
+			throw new IllegalArgumentException("Byte size is too large: " + size, ex);
+		}
+	}
+
+	public long getBytes() {
+		return bytes;
+	}
+
+	@Override
+	public int compareTo(ByteSize size) {
+		return Long.compare(bytes, size.bytes);
+	}
+
+	@Override
+	public boolean equals(Object object) {
+		return object instanceof ByteSize && ((ByteSize) object).bytes == bytes;
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(bytes);
+	}
+
+	//Uses the largest unit that represents this size exactly, preferring powers of 1024
+	@Override
+	public String toString() {
+		for (int i = UNITS.length - 1; i >= 0; i--) {
+			final long multiplier = 1L << (10 * (i + 1));
+
+			if (bytes != 0 && bytes % multiplier == 0) {
+				return bytes / multiplier + " " + UNITS[i] + "iB";
+			}
+		}
+
+		long multiplier = 1_000_000_000_000_000L;
+
+		for (int i = UNITS.length - 1; i >= 0; i--, multiplier /= 1000) {
+			if (bytes != 0 && bytes % multiplier == 0) {
+				return bytes / multiplier + " " + UNITS[i] + "B";
+			}
+		}
+
+		return bytes + " B";
+	}
+
+	private static long getMultiplier(String unit, String size) {
+		final String upperCase = unit.toUpperCase(Locale.ROOT);
+
+		if (upperCase.isEmpty() || upperCase.equals("B")) {
+			return 1;
+		}
+
+		long decimalMultiplier = 1;
+
+		for (int i = 0; i < UNITS.length; i++) {
+			decimalMultiplier *= 1000;
+
+			if (upperCase.equals(UNITS[i] + "B")) {
+				return decimalMultiplier;
+			}
+
+			if (upperCase.equals(UNITS[i]) || upperCase.equals(UNITS[i] + "IB")) {
+				return 1L << (10 * (i + 1));
+			}
+		}
+
+		throw new IllegalArgumentException("Invalid byte size unit: " + size);
+	}
+}
@@ -4,14 +4,17 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import com.electronwill.nightconfig.core.file.CommentedFileConfig;
+import org.apache.commons.lang3.StringUtils;
 
 final class Category {
 	final String fullyQualifiedName;
+	final List<String> path;
 	final String languageKeyPrefix;
-	final String languageKey;
 	final Class<?> clazz;
 	final String comment;
 	final String name;
@@ -24,9 +27,13 @@ final class Category {
 			String fullyQualifiedNamePrefix, String languageKeyPrefix, Class<?> clazz,
 			String comment, String name
 	) {
-		fullyQualifiedName = fullyQualifiedNamePrefix + name;
+		//Share the name instance when there is no prefix
+		fullyQualifiedName =
+				fullyQualifiedNamePrefix.isEmpty() ? name : fullyQualifiedNamePrefix + name;
+		path = Collections.unmodifiableList(
+				Arrays.asList(StringUtils.split(fullyQualifiedName, '.'))
+		);
 		this.languageKeyPrefix = languageKeyPrefix;
-		languageKey = languageKeyPrefix + name;
 		this.clazz = clazz;
 		this.comment = comment;
 		this.name = name;
@@ -35,7 +42,7 @@ final class Category {
 	}
 
 	void initialize(CommentedFileConfig config) {
-		config.setComment(fullyQualifiedName, comment);
+		config.setComment(path, comment);
 	}
 
 	void onReload(boolean client) {
@@ -54,8 +61,12 @@ final class Category {
 		return fullyQualifiedName;
 	}
 
+	String getLanguageKey() {
+		return languageKeyPrefix + name;
+	}
+
 	String getLanguageKeyPrefix() {
-		return languageKey + ".";
+		return getLanguageKey() + ".";
 	}
 
 	private static Method getOnReloadMethod(Class<?> clazz, String name) {
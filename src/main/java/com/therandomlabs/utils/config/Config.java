@@ -41,6 +41,18 @@ public @interface Config {
 		double max() default Double.MAX_VALUE;
 	}
 
+	//For properties that are stored as strings and whose values are comparable, e.g. Durations
+	//and ByteSizes; the bounds are parsed in the same way as the values, e.g. "30s" or "64 MiB"
+	@Retention(RetentionPolicy.RUNTIME)
+	@Target(ElementType.FIELD)
+	@interface Range {
+		//No minimum if empty
+		String min() default "";
+
+		//No maximum if empty
+		String max() default "";
+	}
+
 	@Retention(RetentionPolicy.RUNTIME)
 	@Target(ElementType.FIELD)
 	@interface Blacklist {
@@ -65,9 +77,25 @@ public @interface Config {
 		String value();
 	}
 
+	enum Compression {
+		NONE,
+		GZIP,
+		//zlib-wrapped deflate
+		DEFLATE
+	}
+
 	String id();
 
 	String[] comment();
 
 	String path() default "";
+
+	//If true, each top-level category is stored in its own file in a directory named after
+	//the configuration
+	boolean sharded() default false;
+
+	//Configuration files are written with this compression.
+	//Compressed and plain files are both detected when loading, so this can be changed
+	//without converting existing files.
+	Compression compression() default Compression.NONE;
 }
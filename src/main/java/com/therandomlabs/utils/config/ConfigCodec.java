@@ -0,0 +1,345 @@
+package com.therandomlabs.utils.config;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import com.electronwill.nightconfig.core.file.CommentedFileConfig;
+
+//Encodes the values of a configuration as a compact binary blob that can be sent to another
+//process with the same configuration classes.
+//A blob consists of a header containing the schema hash, the epoch the delta is based on and
+//the current epoch, followed by the changed properties, each of which is identified by
+//its index in ConfigData#properties.
+//Strings, enums, primitives and arrays of them are encoded directly from the fields; other
+//values are encoded by RawValueCodec after being serialized by their type adapters.
+@SuppressWarnings({"rawtypes", "unchecked"})
+final class ConfigCodec {
+	private static final int MAGIC = 0x54524c43;
+	private static final byte FORMAT = 1;
+
+	private static final byte RAW = 0;
+	private static final byte BOOLEAN = 1;
+	private static final byte BYTE = 2;
+	private static final byte SHORT = 3;
+	private static final byte INTEGER = 4;
+	private static final byte LONG = 5;
+	private static final byte FLOAT = 6;
+	private static final byte DOUBLE = 7;
+	private static final byte CHARACTER = 8;
+	private static final byte STRING = 9;
+	private static final byte ENUM = 10;
+	private static final byte ARRAY = 16;
+
+	private static final Map<Class<?>, Byte> KINDS = new HashMap<>();
+
+	static {
+		KINDS.put(boolean.class, BOOLEAN);
+		KINDS.put(Boolean.class, BOOLEAN);
+		KINDS.put(byte.class, BYTE);
+		KINDS.put(Byte.class, BYTE);
+		KINDS.put(short.class, SHORT);
+		KINDS.put(Short.class, SHORT);
+		KINDS.put(int.class, INTEGER);
+		KINDS.put(Integer.class, INTEGER);
+		KINDS.put(long.class, LONG);
+		KINDS.put(Long.class, LONG);
+		KINDS.put(float.class, FLOAT);
+		KINDS.put(Float.class, FLOAT);
+		KINDS.put(double.class, DOUBLE);
+		KINDS.put(Double.class, DOUBLE);
+		KINDS.put(char.class, CHARACTER);
+		KINDS.put(Character.class, CHARACTER);
+		KINDS.put(String.class, STRING);
+
+		KINDS.put(boolean[].class, (byte) (ARRAY | BOOLEAN));
+		KINDS.put(byte[].class, (byte) (ARRAY | BYTE));
+		KINDS.put(short[].class, (byte) (ARRAY | SHORT));
+		KINDS.put(int[].class, (byte) (ARRAY | INTEGER));
+		KINDS.put(long[].class, (byte) (ARRAY | LONG));
+		KINDS.put(float[].class, (byte) (ARRAY | FLOAT));
+		KINDS.put(double[].class, (byte) (ARRAY | DOUBLE));
+		KINDS.put(char[].class, (byte) (ARRAY | CHARACTER));
+		KINDS.put(String[].class, (byte) (ARRAY | STRING));
+	}
+
+	private ConfigCodec() {}
+
+	//Encodes the properties that have changed since the specified epoch.
+	//ConfigData#updateEpochs should be called first.
+	static byte[] encode(ConfigData data, long since) {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final DataOutputStream output = new DataOutputStream(bytes);
+		final CommentedFileConfig scratch = data.createConfig();
+
+		try {
+			output.writeInt(MAGIC);
+			output.writeByte(FORMAT);
+			output.writeInt(data.schemaHash);
+			output.writeLong(since);
+			output.writeLong(data.getEpoch());
+
+			int count = 0;
+
+			for (int i = 0; i < data.properties.size(); i++) {
+				if (data.getEpoch(i) > since) {
+					count++;
+				}
+			}
+
+			RawValueCodec.writeVarInt(output, count);
+
+			for (int i = 0; i < data.properties.size(); i++) {
+				if (data.getEpoch(i) > since) {
+					RawValueCodec.writeVarInt(output, i);
+					write(output, data.properties.get(i), scratch);
+				}
+			}
+		} catch (IOException | IllegalAccessException ex) {
+			throw new ConfigException("Failed to encode config: " + data.clazz.getName(), ex);
+		}
+
+		return bytes.toByteArray();
+	}
+
+	//Validates and applies the encoded values to the fields and to the configuration tree,
+	//if there is one, and adds the categories whose values have changed to the specified set.
+	//Returns the epoch of the encoded values.
+	static long decode(ConfigData data, byte[] blob, Set<Category> changed) {
+		final DataInputStream input = new DataInputStream(new ByteArrayInputStream(blob));
+		final CommentedFileConfig scratch = data.createConfig();
+		final long epoch;
+
+		try {
+			if (input.readInt() != MAGIC || input.readByte() != FORMAT) {
+				throw new ConfigException("Invalid encoded config: " + data.clazz.getName());
+			}
+
+			if (input.readInt() != data.schemaHash) {
+				throw new ConfigException(
+						"Encoded config has a different schema: " + data.clazz.getName()
+				);
+			}
+
+			//Base epoch
+			input.readLong();
+			epoch = input.readLong();
+
+			final int count = RawValueCodec.readVarInt(input);
+
+			for (int i = 0; i < count; i++) {
+				final int index = RawValueCodec.readVarInt(input);
+
+				if (index < 0 || index >= data.properties.size()) {
+					throw new ConfigException(
+							"Invalid property index in encoded config: " + index
+					);
+				}
+
+				final Property property = data.properties.get(index);
+				final Object oldValue = property.getValue();
+				read(input, data, property, data.config == null ? scratch : data.config, scratch);
+
+				if (!property.valueEquals(oldValue, property.getValue())) {
+					changed.add(property.getCategory());
+				}
+			}
+		} catch (IOException | IllegalAccessException ex) {
+			throw new ConfigException("Failed to decode config: " + data.clazz.getName(), ex);
+		}
+
+		return epoch;
+	}
+
+	private static byte getKind(Class<?> type) {
+		final Byte kind = KINDS.get(type);
+
+		if (kind != null) {
+			return kind;
+		}
+
+		if (type.isEnum()) {
+			return ENUM;
+		}
+
+		return type.isArray() && type.getComponentType().isEnum() ? ARRAY | ENUM : RAW;
+	}
+
+	private static void write(DataOutput output, Property property, CommentedFileConfig scratch)
+			throws IOException, IllegalAccessException {
+		final Class<?> type = property.getType();
+		final byte kind = getKind(type);
+
+		switch (kind) {
+		case BOOLEAN:
+			output.writeBoolean(property.getBoolean());
+			return;
+		case BYTE:
+			output.writeByte(property.getInt());
+			return;
+		case SHORT:
+			output.writeShort(property.getInt());
+			return;
+		case INTEGER:
+			RawValueCodec.writeVarInt(output, property.getInt());
+			return;
+		case LONG:
+			output.writeLong(property.getLong());
+			return;
+		case FLOAT:
+			output.writeFloat((float) property.getDouble());
+			return;
+		case DOUBLE:
+			output.writeDouble(property.getDouble());
+			return;
+		case CHARACTER:
+			output.writeChar(type.isPrimitive() ?
+					property.getInt() : (Character) property.getValue());
+			return;
+		case RAW:
+			property.serialize(scratch);
+			RawValueCodec.write(output, scratch.get(property.getPath()));
+			return;
+		}
+
+		final Object value = property.getValue();
+
+		if (kind == STRING) {
+			RawValueCodec.writeString(output, (String) value);
+			return;
+		}
+
+		if (kind == ENUM) {
+			RawValueCodec.writeVarInt(output, ((Enum) value).ordinal());
+			return;
+		}
+
+		final int length = Array.getLength(value);
+		RawValueCodec.writeVarInt(output, length);
+
+		for (int i = 0; i < length; i++) {
+			switch (kind & ~ARRAY) {
+			case BOOLEAN:
+				output.writeBoolean(((boolean[]) value)[i]);
+				break;
+			case BYTE:
+				output.writeByte(((byte[]) value)[i]);
+				break;
+			case SHORT:
+				output.writeShort(((short[]) value)[i]);
+				break;
+			case INTEGER:
+				RawValueCodec.writeVarInt(output, ((int[]) value)[i]);
+				break;
+			case LONG:
+				output.writeLong(((long[]) value)[i]);
+				break;
+			case FLOAT:
+				output.writeFloat(((float[]) value)[i]);
+				break;
+			case DOUBLE:
+				output.writeDouble(((double[]) value)[i]);
+				break;
+			case CHARACTER:
+				output.writeChar(((char[]) value)[i]);
+				break;
+			case STRING:
+				RawValueCodec.writeString(output, ((String[]) value)[i]);
+				break;
+			default:
+				RawValueCodec.writeVarInt(output, ((Enum[]) value)[i].ordinal());
+			}
+		}
+	}
+
+	//Raw values are loaded in the same way as by a reload, so they are put into delayedLoad if
+	//their type adapters cannot load them yet
+	private static void read(
+			DataInput input, ConfigData data, Property property, CommentedFileConfig config,
+			CommentedFileConfig scratch
+	) throws IOException, IllegalAccessException {
+		final Class<?> type = property.getType();
+		final byte kind = getKind(type);
+
+		if (kind == RAW) {
+			final String name = property.getFullyQualifiedName();
+			final Object raw = RawValueCodec.read(input);
+
+			//The decoded value replaces any older value that is still waiting to be loaded
+			if (data.delayedLoad.remove(name) != null && property.shouldLoad()) {
+				property.reloadDefault();
+			}
+
+			scratch.set(property.getPath(), raw);
+			data.deserialize(scratch, property);
+
+			if (config == scratch) {
+				return;
+			}
+
+			if (data.delayedLoad.containsKey(name)) {
+				config.set(property.getPath(), raw);
+			} else {
+				property.serialize(config);
+			}
+
+			return;
+		}
+
+		if ((kind & ARRAY) == 0) {
+			property.setValue(config, readElement(input, kind, type));
+			return;
+		}
+
+		final Class<?> componentType = type.getComponentType();
+		final int length = RawValueCodec.readVarInt(input);
+		final Object value = Array.newInstance(componentType, length);
+
+		for (int i = 0; i < length; i++) {
+			Array.set(value, i, readElement(input, (byte) (kind & ~ARRAY), componentType));
+		}
+
+		property.setValue(config, value);
+	}
+
+	private static Object readElement(DataInput input, byte kind, Class<?> type)
+			throws IOException {
+		switch (kind) {
+		case BOOLEAN:
+			return input.readBoolean();
+		case BYTE:
+			return input.readByte();
+		case SHORT:
+			return input.readShort();
+		case INTEGER:
+			return RawValueCodec.readVarInt(input);
+		case LONG:
+			return input.readLong();
+		case FLOAT:
+			return input.readFloat();
+		case DOUBLE:
+			return input.readDouble();
+		case CHARACTER:
+			return input.readChar();
+		case STRING:
+			return RawValueCodec.readString(input);
+		default:
+			final Object[] constants = type.getEnumConstants();
+			final int ordinal = RawValueCodec.readVarInt(input);
+
+			if (ordinal < 0 || ordinal >= constants.length) {
+				throw new IOException("Invalid enum ordinal: " + ordinal);
+			}
+
+			return constants[ordinal];
+		}
+	}
+}
@@ -1,32 +1,756 @@
 package com.therandomlabs.utils.config;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Array;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.Checksum;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
 
+import com.electronwill.nightconfig.core.CommentedConfig;
 import com.electronwill.nightconfig.core.file.CommentedFileConfig;
+import com.electronwill.nightconfig.core.io.ParsingException;
+import com.electronwill.nightconfig.core.io.ParsingMode;
+import com.electronwill.nightconfig.toml.TomlFormat;
+import com.electronwill.nightconfig.toml.TomlParser;
+import com.electronwill.nightconfig.toml.TomlWriter;
+import org.apache.commons.lang3.StringUtils;
 
 final class ConfigData {
 	final List<String> comment;
 	final Class<?> clazz;
 	final String pathString;
+	//If the configuration is sharded, this is the directory that contains the shards
 	final Path path;
 	final List<Category> categories;
-	final CommentedFileConfig config;
+	//The names of the top-level categories, each of which is stored in its own file,
+	//or null if the configuration is not sharded
+	final List<String> shards;
+	final Config.Compression compression;
+	//Null if the tree has been released in low memory mode
+	CommentedFileConfig config;
+	final PropertyIndex index;
+	//All properties in schema order; positions in this list are used as property indexes
+	//by ConfigCodec
+	final List<Property> properties = new ArrayList<>();
+	//Changes whenever a property is added, removed, renamed or retyped, or an enum constant is
+	//added, removed or renamed
+	final int schemaHash;
 	final Map<String, Object> delayedLoad = new HashMap<>();
+	final ConfigJournal journal;
+	SharedRegion region;
+	//Null unless instances are enabled (see ConfigManager#enableInstances)
+	InstanceCache instances;
+	//Null unless overlays are enabled (see ConfigManager#enableOverlays)
+	Path overlayDirectory;
+	//Overlays may be requested by any thread
+	final Map<String, ConfigOverlay> overlays = new ConcurrentHashMap<>();
+	final List<Derived<?>> derived = new ArrayList<>();
+	//Properties whose values are stored in sidecar files
+	private final List<Property> mappedProperties = new ArrayList<>();
+
+	//The TOML of each shard as it was last written so that unchanged shards are not rewritten.
+	//The full text is compared because a hash collision would silently drop a change.
+	private final Map<String, String> shardContents = new HashMap<>();
+	//Stamps of the configuration file or shards as they were last read or written
+	private final Map<Path, FileStamp> stamps = new HashMap<>();
+
+	//The epoch when the configuration file was last written, or -1 if it has not been written
+	long savedEpoch = -1;
+
+	//Held for writing while the configuration is modified so that readers can observe all or
+	//none of the changes made by each modification (see ConfigManager#read)
+	private final StampedLock lock = new StampedLock();
+	//The thread that holds the write lock.
+	//Only compared with the current thread, which always observes its own writes.
+	private Thread writer;
+	//Modifications may be nested, e.g. reloadFromDisk calls writeToDisk
+	private int writeDepth;
+	private long writeStamp;
+
+	//Incremented by updateEpochs whenever a value has changed.
+	//Only written by the thread that modifies the configuration, but may be read by any thread.
+	private volatile long epoch;
+	//The epoch at which each property last changed
+	private final long[] propertyEpochs;
+	//The values observed by the last call to updateEpochs; arrays are copied
+	private final Object[] values;
 
 	ConfigData(
 			String[] comment, Class<?> clazz, String pathString, Path path,
-			List<Category> categories
+			List<Category> categories, boolean sharded, Config.Compression compression
 	) {
 		this.comment = Arrays.stream(comment).map(line -> "# " + line).collect(Collectors.toList());
 		this.clazz = clazz;
 		this.pathString = pathString;
 		this.path = path;
 		this.categories = categories;
-		config = CommentedFileConfig.builder(path).build();
+		this.compression = compression;
+
+		if (sharded) {
+			shards = new ArrayList<>();
+
+			for (Category category : categories) {
+				final String shard = getShard(category);
+
+				if (!shards.contains(shard)) {
+					shards.add(shard);
+				}
+			}
+		} else {
+			shards = null;
+		}
+
+		for (Category category : categories) {
+			for (Property property : category.properties) {
+				property.index = properties.size();
+				properties.add(property);
+
+				if (MappedFile.class.isAssignableFrom(property.getType())) {
+					mappedProperties.add(property);
+				}
+			}
+		}
+
+		index = new PropertyIndex(categories);
+		schemaHash = computeSchemaHash();
+		propertyEpochs = new long[properties.size()];
+		values = new Object[properties.size()];
+		config = createConfig();
+		journal = new ConfigJournal(path.resolveSibling(path.getFileName() + ".journal"));
+	}
+
+	CommentedFileConfig createConfig() {
+		return createConfig(path);
+	}
+
+	//The format is specified because sharded configurations use a directory as their path, from
+	//which night-config cannot infer a format
+	CommentedFileConfig createConfig(Path path) {
+		return CommentedFileConfig.builder(path, TomlFormat.instance()).build();
+	}
+
+	//Compares the fields to the values observed by the last call and advances the epoch of
+	//every property whose value has changed.
+	//Returns true if anything has changed.
+	boolean updateEpochs() {
+		boolean changed = false;
+
+		for (int i = 0; i < values.length; i++) {
+			changed |= updateEpoch(i, changed);
+		}
+
+		return changed;
+	}
+
+	//Only compares the specified property
+	boolean updateEpoch(Property property) {
+		return updateEpoch(property.index, false);
+	}
+
+	long getEpoch() {
+		return epoch;
+	}
+
+	long getEpoch(int index) {
+		return propertyEpochs[index];
+	}
+
+	private boolean updateEpoch(int index, boolean advanced) {
+		final Property property = properties.get(index);
+		final Object value = property.getFieldValue();
+
+		if (property.valueEquals(value, values[index])) {
+			return false;
+		}
+
+		//The epoch is advanced at most once per update
+		if (!advanced) {
+			epoch++;
+		}
+
+		propertyEpochs[index] = epoch;
+		values[index] = copy(value);
+		return true;
+	}
+
+	//Loads the configuration file or every shard into the specified tree
+	void load(CommentedFileConfig config) {
+		if (shards == null) {
+			final FileStamp previous = stamps.remove(path);
+
+			if (!Files.exists(path)) {
+				config.entrySet().clear();
+				return;
+			}
+
+			try {
+				stampRead(path, previous, parse(config, path));
+			} catch (ParsingException ex) {
+				ex.printStackTrace();
+				config.entrySet().clear();
+			} catch (IOException ex) {
+				throw new ConfigException("Failed to read config: " + path, ex);
+			}
+
+			return;
+		}
+
+		config.entrySet().clear();
+
+		for (String shard : shards) {
+			loadShard(config, shard);
+		}
+	}
+
+	//Replaces the contents of the specified tree with the contents of a compressed or plain
+	//file
+	void read(CommentedConfig config, Path path) {
+		if (!Files.exists(path)) {
+			config.entrySet().clear();
+			return;
+		}
+
+		try {
+			parse(config, path);
+		} catch (IOException ex) {
+			throw new ConfigException("Failed to read config: " + path, ex);
+		}
+	}
+
+	//Loads a file that stores values of this configuration separately from its fields, i.e.
+	//an instance or overlay file, passing each converted value to consumer.
+	//Raw values whose type adapters cannot load them yet are put into delayedLoad instead, and
+	//their default values are passed to consumer until resolveDelayed converts them.
+	//Returns the number of properties in the file, or -1 if it does not exist or cannot be
+	//parsed.
+	int loadValues(
+			Path path, Map<Property, Object> delayedLoad, BiConsumer<Property, Object> consumer
+	) {
+		if (!Files.exists(path)) {
+			return -1;
+		}
+
+		final CommentedFileConfig config = createConfig(path);
+
+		try {
+			read(config, path);
+		} catch (ParsingException ex) {
+			ex.printStackTrace();
+			return -1;
+		}
+
+		int loaded = 0;
+
+		for (Property property : properties) {
+			if (!property.exists(config)) {
+				continue;
+			}
+
+			try {
+				if (property.shouldLoad()) {
+					consumer.accept(property, property.read(config));
+				} else {
+					property.prepare(config);
+					delayedLoad.put(property, config.get(property.getPath()));
+					consumer.accept(property, property.getDefaultValue());
+				}
+			} catch (RuntimeException ex) {
+				throw ConfigException.property(property.getFullyQualifiedName(), ex);
+			}
+
+			loaded++;
+		}
+
+		return loaded;
+	}
+
+	//Converts a raw value put into delayedLoad by loadValues once its type adapter can load it
+	void resolveDelayed(
+			Path path, Map<Property, Object> delayedLoad, Property property,
+			BiConsumer<Property, Object> consumer
+	) {
+		final Object raw = delayedLoad.get(property);
+
+		if (raw == null || !property.shouldLoad()) {
+			return;
+		}
+
+		final CommentedFileConfig config = createConfig(path);
+		config.set(property.getPath(), raw);
+
+		try {
+			property.reloadDefault();
+			consumer.accept(property, property.read(config));
+		} catch (RuntimeException ex) {
+			throw ConfigException.property(property.getFullyQualifiedName(), ex);
+		}
+
+		delayedLoad.remove(property);
+	}
+
+	//Sets the field of a property to its value in the tree, or puts the raw value into
+	//delayedLoad if its type adapter cannot load it yet
+	void deserialize(CommentedFileConfig config, Property property) {
+		if (!property.exists(config)) {
+			return;
+		}
+
+		final String name = property.getFullyQualifiedName();
+
+		try {
+			if (property.shouldLoad()) {
+				final Object delayedLoad = this.delayedLoad.get(name);
+
+				if (delayedLoad != null) {
+					property.reloadDefault();
+					config.set(property.getPath(), delayedLoad);
+					this.delayedLoad.remove(name);
+				}
+
+				property.deserialize(config);
+			} else {
+				//Mainly for ResourceLocations so that if a modded ResourceLocation
+				//is loaded too early, it isn't reset in the config
+				this.delayedLoad.put(name, config.get(property.getPath()));
+			}
+		} catch (Exception ex) {
+			throw ConfigException.property(name, ex);
+		}
+	}
+
+	Property getProperty(String name) {
+		final Property property = index.get(name);
+
+		if (property == null) {
+			throw new ConfigException("No such property: " + name);
+		}
+
+		return property;
+	}
+
+	//Whether the configuration file or every shard is unchanged since it was last read or
+	//written, and every sidecar file is unchanged since it was mapped
+	boolean isUnchanged() {
+		if (!isUnchanged(false)) {
+			return false;
+		}
+
+		for (Property property : mappedProperties) {
+			final Object value = property.getValue();
+
+			if (value != null && !((MappedFile) value).isCurrent()) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	//Whether the configuration file or every shard is unchanged since it was last written, in
+	//which case writing it again would produce the same file unless a value has changed
+	boolean isWritten() {
+		return isUnchanged(true);
+	}
+
+	void loadShard(CommentedConfig config, String shard) {
+		final Path shardPath = getShardPath(shard);
+		final FileStamp previous = stamps.remove(shardPath);
+
+		if (!Files.exists(shardPath)) {
+			config.remove(shard);
+			return;
+		}
+
+		CommentedConfig parsed = TomlFormat.newConfig();
+
+		try {
+			stampRead(shardPath, previous, parse(parsed, shardPath));
+		} catch (ParsingException ex) {
+			ex.printStackTrace();
+			parsed = TomlFormat.newConfig();
+		} catch (IOException ex) {
+			throw new ConfigException("Failed to read config shard: " + shardPath, ex);
+		}
+
+		final Object value = parsed.get(shard);
+
+		if (value == null) {
+			config.remove(shard);
+		} else {
+			config.set(shard, value);
+		}
+	}
+
+	void save(CommentedConfig config) {
+		if (shards == null) {
+			stamp(path, save(config, path), true);
+			return;
+		}
+
+		for (String shard : shards) {
+			saveShard(config, shard);
+		}
+	}
+
+	//Writes the header comment and the specified tree to a single file.
+	//Returns the CRC32 of the written bytes.
+	long save(CommentedConfig config, Path path) {
+		final CRC32 checksum = new CRC32();
+
+		try (Writer writer = newWriter(path, checksum)) {
+			writeComment(writer);
+			new TomlWriter().write(config, writer);
+		} catch (IOException ex) {
+			throw new ConfigException("Failed to write config: " + path, ex);
+		}
+
+		return checksum.getValue();
+	}
+
+	void saveShard(CommentedConfig config, String shard) {
+		final CommentedConfig shardConfig = TomlFormat.newConfig();
+		shardConfig.set(shard, config.get(shard));
+		shardConfig.setComment(shard, config.getComment(shard));
+
+		final String toml = new TomlWriter().writeToString(shardConfig);
+		final Path shardPath = getShardPath(shard);
+
+		//Shards that have been edited or deleted since they were last written are rewritten
+		//even if their contents in the tree have not changed
+		if (toml.equals(shardContents.get(shard)) && isUnchanged(shardPath, true)) {
+			return;
+		}
+
+		final CRC32 checksum = new CRC32();
+
+		try (Writer writer = newWriter(shardPath, checksum)) {
+			writeComment(writer);
+			writer.write(toml);
+		} catch (IOException ex) {
+			throw new ConfigException("Failed to write config shard: " + shardPath, ex);
+		}
+
+		stamp(shardPath, checksum.getValue(), true);
+
+		shardContents.put(shard, toml);
+	}
+
+	boolean isSharded() {
+		return shards != null;
+	}
+
+	void beginWrite() {
+		final Thread thread = Thread.currentThread();
+
+		if (writer == thread) {
+			writeDepth++;
+			return;
+		}
+
+		writeStamp = lock.writeLock();
+		writer = thread;
+		writeDepth = 1;
+	}
+
+	//Returns false without blocking if the lock is held by another thread, or by a read lock
+	//of the current thread, which cannot be upgraded to a write lock
+	boolean tryBeginWrite() {
+		final Thread thread = Thread.currentThread();
+
+		if (writer == thread) {
+			writeDepth++;
+			return true;
+		}
+
+		final long stamp = lock.tryWriteLock();
+
+		if (stamp == 0) {
+			return false;
+		}
+
+		writeStamp = stamp;
+		writer = thread;
+		writeDepth = 1;
+		return true;
+	}
+
+	void endWrite() {
+		if (--writeDepth == 0) {
+			writer = null;
+			lock.unlockWrite(writeStamp);
+		}
+	}
+
+	//Readers on the writing thread, e.g. in onReload methods, are run directly
+	<T> T read(Supplier<T> reader) {
+		if (writer == Thread.currentThread()) {
+			return reader.get();
+		}
+
+		final long stamp = lock.tryOptimisticRead();
+
+		if (stamp != 0) {
+			try {
+				final T value = reader.get();
+
+				if (lock.validate(stamp)) {
+					return value;
+				}
+			} catch (RuntimeException ex) {
+				//The reader may fail if it observes a partially modified tree
+				if (lock.validate(stamp)) {
+					throw ex;
+				}
+			}
+		}
+
+		final long readStamp = lock.readLock();
+
+		try {
+			return reader.get();
+		} finally {
+			lock.unlockRead(readStamp);
+		}
+	}
+
+	//Estimates the heap retained by this configuration (see ConfigManager#footprint)
+	ConfigFootprint footprint(int largestProperties) {
+		final List<ConfigFootprint.Usage> categoryUsages = new ArrayList<>(categories.size());
+		final List<ConfigFootprint.Usage> propertyUsages = new ArrayList<>(properties.size());
+		long schemaBytes = MemoryEstimator.shallow(this) + MemoryEstimator.estimate(comment) +
+				MemoryEstimator.estimate(pathString);
+		long valueBytes = 0;
+
+		for (Category category : categories) {
+			long treeTotal = config == null ? 0 : MemoryEstimator.MAP_ENTRY +
+					MemoryEstimator.estimate(config.getComment(category.path));
+			long schemaTotal = MemoryEstimator.shallow(category) +
+					MemoryEstimator.estimate(category.fullyQualifiedName) +
+					MemoryEstimator.estimate(category.path) +
+					MemoryEstimator.estimate(category.comment);
+			long valueTotal = 0;
+
+			for (Property property : category.properties) {
+				final String name = property.getFullyQualifiedName();
+				final long treeBytes = property.estimateTreeBytes(config) +
+						MemoryEstimator.estimate(delayedLoad.get(name));
+				final long propertySchemaBytes = property.estimateSchemaBytes();
+				final Object defaultValue = property.getDefaultValue();
+				final Object value = property.getFieldValue();
+				final Object snapshot = values[property.index];
+				long propertyValueBytes =
+						value == defaultValue ? 0 : MemoryEstimator.estimate(value);
+
+				if (snapshot != value && snapshot != defaultValue) {
+					propertyValueBytes += MemoryEstimator.estimate(snapshot);
+				}
+
+				propertyUsages.add(new ConfigFootprint.Usage(
+						name, treeBytes, propertySchemaBytes, propertyValueBytes
+				));
+				treeTotal += treeBytes;
+				schemaTotal += propertySchemaBytes;
+				valueTotal += propertyValueBytes;
+			}
+
+			categoryUsages.add(new ConfigFootprint.Usage(
+					category.fullyQualifiedName, treeTotal, schemaTotal, valueTotal
+			));
+			schemaBytes += schemaTotal;
+			valueBytes += valueTotal;
+		}
+
+		//The whole tree is estimated so that entries that do not belong to any property are
+		//also counted
+		final long treeBytes = (config == null ? 0 : MemoryEstimator.estimate(config)) +
+				MemoryEstimator.estimate(delayedLoad) + MemoryEstimator.estimate(shardContents);
+
+		propertyUsages.sort(
+				Comparator.comparingLong(ConfigFootprint.Usage::getTotalBytes).reversed()
+		);
+
+		return new ConfigFootprint(
+				clazz,
+				new ConfigFootprint.Usage(pathString, treeBytes, schemaBytes, valueBytes),
+				Collections.unmodifiableList(categoryUsages),
+				Collections.unmodifiableList(new ArrayList<>(propertyUsages.subList(
+						0, Math.min(largestProperties, propertyUsages.size())
+				)))
+		);
+	}
+
+	private Path getShardPath(String shard) {
+		return path.resolve(shard + ".toml");
+	}
+
+	private boolean isUnchanged(boolean written) {
+		if (shards == null) {
+			return isUnchanged(path, written);
+		}
+
+		for (String shard : shards) {
+			if (!isUnchanged(getShardPath(shard), written)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private boolean isUnchanged(Path path, boolean written) {
+		final FileStamp stamp = stamps.get(path);
+		return stamp != null && (!written || stamp.written) && stamp.matches(path);
+	}
+
+	private void stamp(Path path, long checksum, boolean written) {
+		try {
+			stamps.put(path, new FileStamp(path, checksum, written));
+		} catch (IOException ex) {
+			stamps.remove(path);
+		}
+	}
+
+	//A file that has been read is still considered to have been written by this class if it
+	//has the same contents as when it was last written
+	private void stampRead(Path path, FileStamp previous, long checksum) {
+		stamp(
+				path, checksum,
+				previous != null && previous.written && previous.checksum == checksum
+		);
+	}
+
+	//Checksums are computed from the bytes as they are stored, i.e. after compression
+	static CheckedInputStream newInputStream(Path path) throws IOException {
+		return new CheckedInputStream(Files.newInputStream(path), new CRC32());
+	}
+
+	private Writer newWriter(Path path, Checksum checksum) throws IOException {
+		OutputStream output = new CheckedOutputStream(Files.newOutputStream(path), checksum);
+
+		if (compression == Config.Compression.GZIP) {
+			output = new GZIPOutputStream(output);
+		} else if (compression == Config.Compression.DEFLATE) {
+			output = new DeflaterOutputStream(output);
+		}
+
+		return new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+	}
+
+	//Detects compressed files by their headers.
+	//No valid TOML document starts with a zlib header, since the second byte would have to be
+	//a control character, '^' or a non-ASCII byte directly after an ASCII 'x'.
+	private static Reader newReader(InputStream stream) throws IOException {
+		final InputStream input = new BufferedInputStream(stream);
+		input.mark(2);
+		final int first = input.read();
+		final int second = input.read();
+		input.reset();
+
+		final InputStream decompressed;
+
+		if (first == 0x1F && second == 0x8B) {
+			decompressed = new GZIPInputStream(input);
+		} else if (first == 0x78 && second != -1 && (first << 8 | second) % 31 == 0 &&
+				(second & 0x20) == 0) {
+			decompressed = new InflaterInputStream(input);
+		} else {
+			decompressed = input;
+		}
+
+		return new BufferedReader(new InputStreamReader(decompressed, StandardCharsets.UTF_8));
+	}
+
+	//Parses a compressed or plain file into the specified tree.
+	//Returns the CRC32 of the bytes of the file.
+	private static long parse(CommentedConfig config, Path path) throws IOException {
+		try (CheckedInputStream input = newInputStream(path);
+				Reader reader = newReader(input)) {
+			new TomlParser().parse(reader, config, ParsingMode.REPLACE);
+			//Decompressors may not read trailing bytes
+			FileStamp.drain(input);
+			return input.getChecksum().getValue();
+		}
+	}
+
+	private void writeComment(Writer writer) throws IOException {
+		for (String line : comment) {
+			writer.write(line);
+			writer.write(System.lineSeparator());
+		}
+	}
+
+	//Returns the file in which the instance or overlay with the specified ID is stored
+	static Path getFile(Path directory, String id) {
+		final Path path = directory.resolve(id + ".toml").normalize();
+
+		if (!directory.equals(path.getParent())) {
+			throw new ConfigException("Invalid configuration instance ID: " + id);
+		}
+
+		return path;
+	}
+
+	static String getShard(Category category) {
+		return StringUtils.substringBefore(category.name, ".");
+	}
+
+	private int computeSchemaHash() {
+		int hash = 1;
+
+		for (Property property : properties) {
+			final Class<?> type = property.getType();
+			hash = 31 * hash + property.getFullyQualifiedName().hashCode();
+			hash = 31 * hash + type.getName().hashCode();
+
+			final Class<?> enumType = type.isArray() ? type.getComponentType() : type;
+
+			if (enumType.isEnum()) {
+				for (Object constant : enumType.getEnumConstants()) {
+					hash = 31 * hash + ((Enum<?>) constant).name().hashCode();
+				}
+			}
+		}
+
+		return hash;
+	}
+
+	private static Object copy(Object value) {
+		if (value == null || !value.getClass().isArray()) {
+			return value;
+		}
+
+		final int length = Array.getLength(value);
+		final Object copy = Array.newInstance(value.getClass().getComponentType(), length);
+		System.arraycopy(value, 0, copy, 0, length);
+		return copy;
 	}
 }
@@ -0,0 +1,100 @@
+package com.therandomlabs.utils.config;
+
+import java.util.List;
+
+//Estimated heap retained by a registered configuration (see ConfigManager#footprint).
+//Tree bytes are retained by the parsed configuration tree, including comments and values
+//awaiting a delayed load.
+//Schema bytes are retained by property and category metadata, including default values.
+//Value bytes are retained by field values and the snapshots used to track epochs; values that
+//are the default value instance are not counted again.
+public final class ConfigFootprint {
+	private final Class<?> configClass;
+	private final Usage total;
+	private final List<Usage> categories;
+	private final List<Usage> largestProperties;
+
+	ConfigFootprint(
+			Class<?> configClass, Usage total, List<Usage> categories,
+			List<Usage> largestProperties
+	) {
+		this.configClass = configClass;
+		this.total = total;
+		this.categories = categories;
+		this.largestProperties = largestProperties;
+	}
+
+	public Class<?> getConfigClass() {
+		return configClass;
+	}
+
+	public Usage getTotal() {
+		return total;
+	}
+
+	public List<Usage> getCategories() {
+		return categories;
+	}
+
+	//The properties that retain the most bytes, in descending order
+	public List<Usage> getLargestProperties() {
+		return largestProperties;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder builder = new StringBuilder(configClass.getName()).append(": ").
+				append(total);
+
+		for (Usage category : categories) {
+			builder.append("\n  category ").append(category);
+		}
+
+		for (Usage property : largestProperties) {
+			builder.append("\n  property ").append(property);
+		}
+
+		return builder.toString();
+	}
+
+	public static final class Usage {
+		private final String name;
+		private final long treeBytes;
+		private final long schemaBytes;
+		private final long valueBytes;
+
+		Usage(String name, long treeBytes, long schemaBytes, long valueBytes) {
+			this.name = name;
+			this.treeBytes = treeBytes;
+			this.schemaBytes = schemaBytes;
+			this.valueBytes = valueBytes;
+		}
+
+		//The fully qualified name of the category or property, or the configuration path
+		public String getName() {
+			return name;
+		}
+
+		public long getTreeBytes() {
+			return treeBytes;
+		}
+
+		public long getSchemaBytes() {
+			return schemaBytes;
+		}
+
+		public long getValueBytes() {
+			return valueBytes;
+		}
+
+		public long getTotalBytes() {
+			return treeBytes + schemaBytes + valueBytes;
+		}
+
+		@Override
+		public String toString() {
+			return name + " " + getTotalBytes() + " bytes (tree: " + treeBytes + ", schema: " +
+					schemaBytes + ", values: " + valueBytes + ")";
+		}
+	}
+}
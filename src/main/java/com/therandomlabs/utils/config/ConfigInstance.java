@@ -0,0 +1,134 @@
+package com.therandomlabs.utils.config;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.electronwill.nightconfig.core.file.CommentedFileConfig;
+
+//A set of values for a configuration class that is stored in its own file rather than in the
+//static fields of the class, e.g. a per-world configuration.
+//All instances share the categories and properties of the class, and values are validated
+//in the same way.
+//Instances are loaded and cached by ConfigManager#getInstance; changes are written back when
+//an instance is evicted from the cache or by ConfigManager#writeInstances.
+//An instance may be used by several threads; its values are guarded by its own monitor.
+public final class ConfigInstance {
+	private final ConfigData data;
+	private final String id;
+	private final Path path;
+	//Indexed by Property#index
+	private final Object[] values;
+	//Raw values of properties whose type adapters could not load them yet
+	//(see TypeAdapter#shouldLoad)
+	private final Map<Property, Object> delayedLoad = new HashMap<>();
+	private boolean dirty;
+
+	ConfigInstance(ConfigData data, String id, Path path) {
+		this.data = data;
+		this.id = id;
+		this.path = path;
+		values = new Object[data.properties.size()];
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public Path getPath() {
+		return path;
+	}
+
+	public Object get(String name) {
+		return get(data.getProperty(name));
+	}
+
+	//The typed getters follow the same rules as ConfigManager#getInt etc.
+	public int getInt(String name) {
+		final Property property = data.getProperty(name);
+		return property.toInt(get(property));
+	}
+
+	public long getLong(String name) {
+		final Property property = data.getProperty(name);
+		return property.toLong(get(property));
+	}
+
+	public double getDouble(String name) {
+		final Property property = data.getProperty(name);
+		return property.toDouble(get(property));
+	}
+
+	public boolean getBoolean(String name) {
+		final Property property = data.getProperty(name);
+		return property.toBoolean(get(property));
+	}
+
+	//Validates the value in the same way as ConfigManager#set
+	public synchronized void set(String name, Object value) {
+		final Property property = data.getProperty(name);
+		final Object newValue;
+
+		try {
+			newValue = property.toValue(value);
+		} catch (RuntimeException ex) {
+			throw ConfigException.property(name, ex);
+		}
+
+		delayedLoad.remove(property);
+
+		if (!property.valueEquals(values[property.index], newValue)) {
+			values[property.index] = newValue;
+			dirty = true;
+		}
+	}
+
+	//Writes this instance to its file if it has changed since it was loaded.
+	//This is only necessary if this instance is modified after it has been evicted.
+	public synchronized void save() {
+		if (!dirty) {
+			return;
+		}
+
+		final CommentedFileConfig config = data.createConfig(path);
+
+		for (Category category : data.categories) {
+			category.initialize(config);
+		}
+
+		for (Property property : data.properties) {
+			final Object raw = delayedLoad.get(property);
+
+			if (raw == null) {
+				property.write(config, values[property.index]);
+			} else {
+				config.set(property.getPath(), raw);
+			}
+		}
+
+		data.save(config, path);
+		dirty = false;
+	}
+
+	//Instances without a file start with the default values and are written on the first
+	//save, as are instances whose files are missing properties
+	synchronized void load() {
+		for (Property property : data.properties) {
+			values[property.index] = property.getDefaultValue();
+		}
+
+		dirty = data.loadValues(path, delayedLoad, this::setLoaded) != data.properties.size();
+	}
+
+	private synchronized Object get(Property property) {
+		if (!delayedLoad.isEmpty()) {
+			data.resolveDelayed(path, delayedLoad, property, this::setLoaded);
+		}
+
+		return values[property.index];
+	}
+
+	private void setLoaded(Property property, Object value) {
+		values[property.index] = value;
+	}
+}
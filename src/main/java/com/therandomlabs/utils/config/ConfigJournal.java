@@ -0,0 +1,134 @@
+package com.therandomlabs.utils.config;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+
+import com.electronwill.nightconfig.core.CommentedConfig;
+
+//An append-only file next to a configuration file that records individual value changes so
+//that they can be persisted without rewriting the entire configuration file.
+//Each record consists of a fully qualified property name followed by a value encoded by
+//RawValueCodec.
+final class ConfigJournal {
+	private final Path path;
+
+	private boolean exists;
+	private long size;
+	private long firstRecordTime;
+
+	ConfigJournal(Path path) {
+		this.path = path;
+		exists = Files.exists(path);
+
+		if (!exists) {
+			return;
+		}
+
+		//A journal left over from a previous process is compacted based on its own size and
+		//age rather than only once this process appends to it.
+		//The creation time falls back to the modification time on file systems that do not
+		//record it.
+		try {
+			final BasicFileAttributes attributes =
+					Files.readAttributes(path, BasicFileAttributes.class);
+			size = attributes.size();
+			firstRecordTime = attributes.creationTime().toMillis();
+		} catch (IOException ex) {
+			throw new ConfigException("Failed to read config journal: " + path, ex);
+		}
+	}
+
+	void append(Map<String, Object> changes) {
+		if (changes.isEmpty()) {
+			return;
+		}
+
+		try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+				Files.newOutputStream(
+						path, StandardOpenOption.CREATE, StandardOpenOption.APPEND
+				)
+		))) {
+			for (Map.Entry<String, Object> change : changes.entrySet()) {
+				RawValueCodec.writeString(output, change.getKey());
+				RawValueCodec.write(output, change.getValue());
+			}
+
+			output.flush();
+
+			if (size == 0) {
+				firstRecordTime = System.currentTimeMillis();
+			}
+
+			size += output.size();
+			exists = true;
+		} catch (IOException ex) {
+			throw new ConfigException("Failed to append to config journal: " + path, ex);
+		}
+	}
+
+	//Applies all complete records to the specified configuration.
+	//An incomplete record at the end of the journal, e.g. from a crash, is ignored.
+	void replay(CommentedConfig config) {
+		if (!exists) {
+			return;
+		}
+
+		try (DataInputStream input = new DataInputStream(new BufferedInputStream(
+				Files.newInputStream(path)
+		))) {
+			while (true) {
+				final String name;
+				final Object value;
+
+				try {
+					name = RawValueCodec.readString(input);
+					value = RawValueCodec.read(input);
+				} catch (EOFException ex) {
+					break;
+				}
+
+				if (value == null) {
+					config.remove(name);
+				} else {
+					config.set(name, value);
+				}
+			}
+		} catch (IOException ex) {
+			throw new ConfigException("Failed to read config journal: " + path, ex);
+		}
+	}
+
+	boolean isEmpty() {
+		return !exists;
+	}
+
+	boolean shouldCompact(long maxSize, long maxAge) {
+		return size != 0 &&
+				(size >= maxSize || System.currentTimeMillis() - firstRecordTime >= maxAge);
+	}
+
+	//Called after the configuration file has been completely rewritten
+	void delete() {
+		if (!exists) {
+			return;
+		}
+
+		try {
+			Files.deleteIfExists(path);
+		} catch (IOException ex) {
+			throw new ConfigException("Failed to delete config journal: " + path, ex);
+		}
+
+		exists = false;
+		size = 0;
+	}
+}
@@ -7,30 +7,109 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
 import com.electronwill.nightconfig.core.CommentedConfig;
 import com.electronwill.nightconfig.core.file.CommentedFileConfig;
-import com.electronwill.nightconfig.core.io.ParsingException;
 import org.apache.commons.lang3.StringUtils;
 
 public final class ConfigManager {
-	private static final Map<Class<?>, ConfigData> CONFIGS = new HashMap<>();
+	//Read by any thread, e.g. through get or read
+	private static final Map<Class<?>, ConfigData> CONFIGS = new ConcurrentHashMap<>();
 	private static final List<Predicate<Field>> VERSION_CHECKERS = new ArrayList<>();
+	private static final Path DEFAULT_DIRECTORY = Paths.get("config");
+	private static final Map<Class<?>, Path> DIRECTORIES = new HashMap<>();
+	//The number of properties listed by footprint for each configuration
+	private static final int LARGEST_PROPERTIES = 10;
+
+	private static Path directory = DEFAULT_DIRECTORY;
 
 	private static boolean client = true;
 
+	private static Path sharedRegionDirectory;
+	private static boolean sharedRegionPublisher;
+
+	private static boolean lowMemory;
+	private static ForkJoinPool reloadPool;
+
+	private static long journalMaxSize = 64 * 1024;
+	private static long journalMaxAge = 5 * 60 * 1000;
+
+	//Incremented whenever the epoch of any configuration is advanced, which may happen on
+	//several threads at once for different configurations
+	private static final AtomicLong GLOBAL_EPOCH = new AtomicLong();
+
 	private ConfigManager() {}
 
 	public static void setClient(boolean flag) {
 		client = flag;
 	}
 
+	//Configurations registered after this is called are stored in the specified directory
+	//rather than in config/ in the working directory.
+	//The directory may be on any FileSystem, e.g. an in-memory one for tests.
+	public static void setDirectory(Path directory) {
+		ConfigManager.directory = directory;
+	}
+
+	//Overrides the directory for a single configuration class; must be called before the class
+	//is registered
+	public static void setDirectory(Class<?> clazz, Path directory) {
+		DIRECTORIES.put(clazz, directory);
+	}
+
+	//Configurations registered after this is called are shared with other processes through
+	//memory-mapped files in the specified directory.
+	//Exactly one process should be the publisher; the others only read the published values
+	//and never read or write the TOML files.
+	public static void enableSharedRegions(Path directory, boolean publisher) {
+		try {
+			Files.createDirectories(directory);
+		} catch (IOException ex) {
+			throw new ConfigException("Failed to create shared region directory", ex);
+		}
+
+		sharedRegionDirectory = directory;
+		sharedRegionPublisher = publisher;
+	}
+
+	//In low memory mode, configuration trees are released after they are written, and
+	//writeToDisk rebuilds them from the configuration classes.
+	//get(Class) rebuilds a released tree on demand.
+	public static void setLowMemoryMode(boolean flag) {
+		lowMemory = flag;
+	}
+
+	//If a pool is set, reloadFromConfig converts and validates properties whose type adapters
+	//are thread-safe (see TypeAdapter#isThreadSafe) in parallel.
+	//Fields are still set and onReload methods are still called in order on the calling
+	//thread.
+	public static void setReloadPool(ForkJoinPool pool) {
+		reloadPool = pool;
+	}
+
+	//Journals are compacted into their configuration files by writeToJournal and
+	//compactJournals once they reach either of these thresholds
+	public static void setJournalCompactionThresholds(long maxSize, long maxAgeMillis) {
+		journalMaxSize = maxSize;
+		journalMaxAge = maxAgeMillis;
+	}
+
 	public static void registerVersionChecker(Predicate<Field> predicate) {
 		VERSION_CHECKERS.add(predicate);
 	}
@@ -52,104 +131,809 @@ public final class ConfigManager {
 
 		//Ensure path is valid by initializing it first
 		final String pathData = config.path();
-		final String pathString =
-				"config/" + (pathData.isEmpty() ? id : config.path()) + ".toml";
-		final Path path = Paths.get(pathString).toAbsolutePath();
+		final String name = pathData.isEmpty() ? id : pathData;
+		final String fileName = name + (config.sharded() ? "" : ".toml");
+		final Path directory = DIRECTORIES.getOrDefault(clazz, ConfigManager.directory);
+		final Path path = directory.resolve(fileName).toAbsolutePath();
+		final String pathString = directory == DEFAULT_DIRECTORY ?
+				"config/" + fileName : directory.resolve(fileName).toString();
 
 		try {
-			Files.createDirectories(path.getParent());
+			Files.createDirectories(config.sharded() ? path : path.getParent());
 		} catch (IOException ex) {
 			throw new ConfigException("Failed to create configuration directory", ex);
 		}
 
 		final List<Category> categories = new ArrayList<>();
 		loadCategories("", id + ".config.", "", clazz, categories);
-		final ConfigData data = new ConfigData(comment, clazz, pathString, path, categories);
+		final ConfigData data = new ConfigData(
+				comment, clazz, pathString, path, categories, config.sharded(),
+				config.compression()
+		);
 
 		CONFIGS.put(clazz, data);
+
+		if (sharedRegionDirectory != null) {
+			final Path regionPath = sharedRegionDirectory.resolve(name + ".region");
+
+			if (sharedRegionPublisher) {
+				data.region = SharedRegion.publisher(regionPath, data);
+			} else {
+				data.region = SharedRegion.follower(regionPath, data);
+			}
+		}
+
 		reloadFromDisk(clazz);
 	}
 
+	//Does nothing if the configuration file has not changed since it was last read or written,
+	//no field has been changed directly since then and no property is waiting to be loaded
+	//(see TypeAdapter#shouldLoad)
 	public static void reloadFromDisk(Class<?> clazz) {
+		reloadFromDisk(clazz, false);
+	}
+
+	//If force is true, the configuration file is always parsed again
+	public static void reloadFromDisk(Class<?> clazz, boolean force) {
 		final ConfigData data = CONFIGS.get(clazz);
+		data.beginWrite();
 
 		try {
-			data.config.load();
-		} catch (ParsingException ex) {
-			ex.printStackTrace();
-			data.config.entrySet().clear();
+			if (data.region != null && !data.region.isPublisher()) {
+				final byte[] payload = data.region.poll();
+
+				if (payload != null) {
+					data.region.apply(data, getConfig(data), payload);
+				}
+
+				reloadFromConfig(clazz);
+				return;
+			}
+
+			//updateEpochs detects fields that have been changed directly, which a reload reverts.
+			//Delayed properties are retried by every reload, since their type adapters may now
+			//be able to load them.
+			if (!force && data.journal.isEmpty() && data.delayedLoad.isEmpty() &&
+					data.isUnchanged() && !updateEpochs(data)) {
+				return;
+			}
+
+			if (data.config == null) {
+				data.config = data.createConfig();
+			}
+
+			data.load(data.config);
+
+			//reloadFromConfig rewrites the configuration file, which compacts the journal
+			data.journal.replay(data.config);
+			reloadFromConfig(clazz);
+		} finally {
+			data.endWrite();
 		}
+	}
+
+	//For sharded configurations, only reloads and rewrites the file that contains the
+	//specified category, e.g. in response to a file watcher event.
+	//For other configurations, this is equivalent to reloadFromDisk(Class).
+	public static void reloadFromDisk(Class<?> clazz, String category) {
+		final ConfigData data = CONFIGS.get(clazz);
+		data.beginWrite();
+
+		try {
+			if (!data.isSharded() || (data.region != null && !data.region.isPublisher())) {
+				reloadFromDisk(clazz);
+				return;
+			}
+
+			final String shard = StringUtils.substringBefore(category, ".");
+
+			if (!data.shards.contains(shard)) {
+				throw new ConfigException("No such category: " + category);
+			}
 
-		reloadFromConfig(clazz);
+			final CommentedFileConfig config = getConfig(data);
+			data.loadShard(config, shard);
+
+			//Journaled changes are newer than the shard, and because they may belong to any
+			//shard, the journal is compacted by saving every shard afterwards
+			final boolean compact = !data.journal.isEmpty();
+
+			if (compact) {
+				data.journal.replay(config);
+			}
+
+			for (Category shardCategory : data.categories) {
+				if (shard.equals(ConfigData.getShard(shardCategory))) {
+					for (Property property : shardCategory.properties) {
+						data.deserialize(config, property);
+					}
+				}
+			}
+
+			updateEpochs(data);
+
+			final CommentedConfig oldShardConfig = config.get(shard);
+
+			if (oldShardConfig != null) {
+				removeComments(oldShardConfig);
+			}
+
+			serialize(data, config, true, shard);
+
+			final CommentedConfig shardConfig = config.get(shard);
+
+			if (shardConfig != null) {
+				removeUncommentedEntries(shardConfig);
+			}
+
+			if (compact) {
+				data.save(config);
+				data.savedEpoch = data.getEpoch();
+				data.journal.delete();
+			} else {
+				data.saveShard(config, shard);
+			}
+
+			data.config = lowMemory ? null : config;
+		} finally {
+			data.endWrite();
+		}
 	}
 
 	public static void reloadFromConfig(Class<?> clazz) {
 		final ConfigData data = CONFIGS.get(clazz);
+		data.beginWrite();
 
-		for (Category category : data.categories) {
-			for (Property property : category.properties) {
-				if (property.exists(data.config)) {
+		try {
+			final CommentedFileConfig config = getConfig(data);
+
+			final List<Property> parallel = new ArrayList<>();
+
+			for (Category category : data.categories) {
+				for (Property property : category.properties) {
+					if (reloadPool != null && property.isThreadSafe() && property.exists(config) &&
+							property.shouldLoad() &&
+							!data.delayedLoad.containsKey(property.getFullyQualifiedName())) {
+						property.prepare(config);
+						parallel.add(property);
+					} else {
+						data.deserialize(config, property);
+					}
+				}
+			}
+
+			if (!parallel.isEmpty()) {
+				final Object[] values = new Object[parallel.size()];
+
+				//The tree is not modified until every value has been converted
+				reloadPool.submit(() -> IntStream.range(0, values.length).parallel().forEach(i -> {
+					final Property property = parallel.get(i);
+
+					try {
+						values[i] = property.convert(config);
+					} catch (Exception ex) {
+						throw ConfigException.property(property.getFullyQualifiedName(), ex);
+					}
+				})).join();
+
+				for (int i = 0; i < values.length; i++) {
+					final Property property = parallel.get(i);
+
+					try {
+						property.apply(config, values[i]);
+					} catch (Exception ex) {
+						throw ConfigException.property(property.getFullyQualifiedName(), ex);
+					}
+				}
+			}
+
+			writeToDisk(clazz);
+		} finally {
+			data.endWrite();
+		}
+	}
+
+	public static void writeToDisk(Class<?> clazz) {
+		final ConfigData data = CONFIGS.get(clazz);
+		data.beginWrite();
+
+		try {
+			//This is called by reloadFromConfig before the onReload methods are called
+			updateEpochs(data);
+
+			//A released tree is rebuilt from scratch, so there are no stale entries to remove
+			final boolean rebuild = data.config == null;
+			final CommentedFileConfig config = rebuild ? data.createConfig() : data.config;
+
+			if (!rebuild) {
+				//Remove all comments so we can tell which properties and categories no longer
+				//exist afterwards
+				removeComments(config);
+			}
+
+			serialize(data, config, true, null);
+
+			if (!rebuild) {
+				//Remove all entries without a comment, i.e. entries that are not defined in the
+				//configuration class
+				removeUncommentedEntries(config);
+			}
+
+			if (data.region == null || data.region.isPublisher()) {
+				//The file is only rewritten if a value or the file has changed since it was last
+				//written, so steady-state reloads do not serialize the entire tree to TOML
+				if (data.getEpoch() != data.savedEpoch || !data.journal.isEmpty() ||
+						!data.isWritten()) {
+					data.save(config);
+					data.savedEpoch = data.getEpoch();
+				}
+
+				data.journal.delete();
+
+				if (data.region != null) {
+					data.region.publish(data, config);
+				}
+			}
+
+			data.config = lowMemory ? null : config;
+		} finally {
+			data.endWrite();
+		}
+	}
+
+	//Persists the properties whose field values have changed since the last write by
+	//appending them to a journal next to the configuration file rather than rewriting the
+	//entire file.
+	//The journal is replayed on the next reloadFromDisk and compacted into the configuration
+	//file by writeToDisk.
+	public static void writeToJournal(Class<?> clazz) {
+		final ConfigData data = CONFIGS.get(clazz);
+		data.beginWrite();
+
+		try {
+			if (data.region != null && !data.region.isPublisher()) {
+				return;
+			}
+
+			//Without a tree, there is nothing to compare the fields to
+			if (data.config == null) {
+				writeToDisk(clazz);
+				return;
+			}
+
+			updateEpochs(data);
+
+			final Map<String, Object> changes = new LinkedHashMap<>();
+
+			for (Category category : data.categories) {
+				boolean changed = false;
+
+				for (Property property : category.properties) {
 					final String name = property.getFullyQualifiedName();
 
+					if (data.delayedLoad.containsKey(name)) {
+						continue;
+					}
+
 					try {
-						if (property.shouldLoad()) {
-							final Object delayedLoad = data.delayedLoad.get(name);
-
-							if (delayedLoad != null) {
-								property.reloadDefault();
-								data.config.set(name, delayedLoad);
-								data.delayedLoad.remove(name);
-							}
-
-							property.deserialize(data.config);
-						} else {
-							//Mainly for ResourceLocations so that if a modded ResourceLocation
-							//is loaded too early, it isn't reset in the config
-							data.delayedLoad.put(name, data.config.get(name));
+						final Object oldValue = data.config.get(property.getPath());
+						property.serialize(data.config);
+						final Object newValue = data.config.get(property.getPath());
+
+						if (!Objects.equals(oldValue, newValue)) {
+							changes.put(name, newValue);
+							changed = true;
 						}
 					} catch (Exception ex) {
 						throw ConfigException.property(name, ex);
 					}
 				}
+
+				if (changed) {
+					onReload(category);
+				}
 			}
+
+			persist(clazz, data, changes);
+		} finally {
+			data.endWrite();
 		}
+	}
 
-		writeToDisk(clazz);
+	//Compacts all journals that have reached either compaction threshold into their
+	//configuration files.
+	//Intended to be called periodically, e.g. from a scheduled task.
+	public static void compactJournals() {
+		for (Map.Entry<Class<?>, ConfigData> entry : CONFIGS.entrySet()) {
+			if (entry.getValue().journal.shouldCompact(journalMaxSize, journalMaxAge)) {
+				writeToDisk(entry.getKey());
+			}
+		}
 	}
 
-	public static void writeToDisk(Class<?> clazz) {
+	//Applies values published by another process if they have changed since the last poll.
+	//Returns true if new values were applied.
+	public static boolean pollSharedRegion(Class<?> clazz) {
 		final ConfigData data = CONFIGS.get(clazz);
+		data.beginWrite();
 
-		final List<CommentedConfig> subConfigs = new ArrayList<>();
-		subConfigs.add(data.config);
+		try {
+			if (data.region == null || data.region.isPublisher()) {
+				return false;
+			}
 
-		//Remove all comments so we can tell which properties and categories no longer exist
-		//afterwards
-		while (!subConfigs.isEmpty()) {
-			final int size = subConfigs.size();
+			final byte[] payload = data.region.poll();
 
-			for (int i = 0; i < size; i++) {
-				for (CommentedConfig.Entry entry : subConfigs.get(i).entrySet()) {
-					entry.removeComment();
+			if (payload == null) {
+				return false;
+			}
 
-					final Object raw = entry.getRawValue();
+			//In low memory mode, the tree is only rebuilt once there are new values
+			data.region.apply(data, getConfig(data), payload);
+			reloadFromConfig(clazz);
+			return true;
+		} finally {
+			data.endWrite();
+		}
+	}
 
-					if (raw instanceof CommentedConfig) {
-						subConfigs.add((CommentedConfig) raw);
-					}
+	public static void pollSharedRegions() {
+		CONFIGS.keySet().forEach(ConfigManager::pollSharedRegion);
+	}
+
+	//Allows a registered configuration class to be used as the schema for any number of
+	//instances, each of which is stored in the specified directory as <ID>.toml.
+	//At most maxLoaded instances are kept in memory.
+	public static void enableInstances(Class<?> clazz, Path directory, int maxLoaded) {
+		try {
+			Files.createDirectories(directory);
+		} catch (IOException ex) {
+			throw new ConfigException("Failed to create configuration instance directory", ex);
+		}
+
+		final ConfigData data = CONFIGS.get(clazz);
+		data.instances = new InstanceCache(data, directory, maxLoaded);
+	}
+
+	//Returns the instance with the specified ID, loading it if necessary.
+	//Loading an instance may evict the least recently used instance, which is written back to
+	//disk if it has changed.
+	public static ConfigInstance getInstance(Class<?> clazz, String id) {
+		return getInstances(CONFIGS.get(clazz)).get(id);
+	}
+
+	//Writes all loaded instances that have changed
+	public static void writeInstances(Class<?> clazz) {
+		getInstances(CONFIGS.get(clazz)).saveAll();
+	}
+
+	//Allows sparse overlays of a registered configuration to be stored in the specified
+	//directory as <ID>.toml.
+	//Overlay files only contain the values that they override.
+	public static void enableOverlays(Class<?> clazz, Path directory) {
+		try {
+			Files.createDirectories(directory);
+		} catch (IOException ex) {
+			throw new ConfigException("Failed to create configuration overlay directory", ex);
+		}
+
+		CONFIGS.get(clazz).overlayDirectory = directory.toAbsolutePath().normalize();
+	}
+
+	//Returns the overlay with the specified ID, loading it if necessary.
+	//Loaded overlays are kept in memory, which only scales with the number of overrides.
+	public static ConfigOverlay getOverlay(Class<?> clazz, String id) {
+		final ConfigData data = CONFIGS.get(clazz);
+
+		if (data.overlayDirectory == null) {
+			throw new ConfigException(
+					"Overlays are not enabled for configuration: " + clazz.getName()
+			);
+		}
+
+		//Each overlay is only loaded once, even if several threads request it at once
+		return data.overlays.computeIfAbsent(id, key -> {
+			final ConfigOverlay overlay =
+					new ConfigOverlay(data, id, ConfigData.getFile(data.overlayDirectory, id));
+			overlay.load();
+			return overlay;
+		});
+	}
+
+	//Writes all loaded overlays that have changed
+	public static void writeOverlays(Class<?> clazz) {
+		CONFIGS.get(clazz).overlays.values().forEach(ConfigOverlay::save);
+	}
+
+	//Registers a value that is computed by the supplier from the specified properties, or from
+	//all properties if none are specified.
+	//The value is computed immediately and again after every reload, set or decode that
+	//changes one of the properties, before any onReload methods are called.
+	public static <T> Derived<T> derive(
+			Class<?> clazz, Supplier<T> supplier, String... properties
+	) {
+		final ConfigData data = CONFIGS.get(clazz);
+		final int[] inputs;
+
+		if (properties.length == 0) {
+			inputs = IntStream.range(0, data.properties.size()).toArray();
+		} else {
+			inputs = new int[properties.length];
+
+			for (int i = 0; i < properties.length; i++) {
+				inputs[i] = data.getProperty(properties[i]).index;
+			}
+		}
+
+		final Derived<T> derived = new Derived<>(supplier, inputs);
+		data.beginWrite();
+
+		try {
+			updateEpochs(data);
+			derived.update(data);
+			data.derived.add(derived);
+		} finally {
+			data.endWrite();
+		}
+
+		return derived;
+	}
+
+	//Returns the epoch of a configuration, which is advanced whenever a reload, set, decode or
+	//resolveDelayed changes a value, or writeToDisk, writeToJournal or encodeDelta observes
+	//that a field has been changed directly.
+	//Derived data can be cached along with the epoch and revalidated with a single volatile
+	//read.
+	public static long getEpoch(Class<?> clazz) {
+		return CONFIGS.get(clazz).getEpoch();
+	}
+
+	//Returns an epoch that is advanced whenever the epoch of any configuration is advanced
+	public static long getGlobalEpoch() {
+		return GLOBAL_EPOCH.get();
+	}
+
+	//Encodes the current values of a configuration as a compact binary blob that can be
+	//applied with decode by another process with the same configuration classes
+	public static byte[] encode(Class<?> clazz) {
+		return encodeDelta(clazz, 0);
+	}
+
+	//Encodes only the values that have changed since the specified epoch, which should be
+	//an epoch returned by getEpoch or decode
+	public static byte[] encodeDelta(Class<?> clazz, long sinceEpoch) {
+		final ConfigData data = CONFIGS.get(clazz);
+		data.beginWrite();
+
+		try {
+			updateEpochs(data);
+			return ConfigCodec.encode(data, sinceEpoch);
+		} finally {
+			data.endWrite();
+		}
+	}
+
+	//Validates and applies values encoded by encode or encodeDelta and calls the onReload
+	//methods of the categories whose values have changed.
+	//Like set, this updates the fields and the configuration tree; the values are persisted
+	//by the next call to writeToDisk.
+	//Returns the epoch of the encoded values.
+	public static long decode(Class<?> clazz, byte[] blob) {
+		final ConfigData data = CONFIGS.get(clazz);
+		data.beginWrite();
+
+		try {
+			final Set<Category> changed = new LinkedHashSet<>();
+			final long epoch = ConfigCodec.decode(data, blob, changed);
+			updateEpochs(data);
+			changed.forEach(ConfigManager::onReload);
+			return epoch;
+		} finally {
+			data.endWrite();
+		}
+	}
+
+	//Estimates the heap retained by each registered configuration, including the largest
+	//properties of each (see ConfigFootprint)
+	public static List<ConfigFootprint> footprint() {
+		final List<ConfigFootprint> footprints = new ArrayList<>(CONFIGS.size());
+
+		for (ConfigData data : CONFIGS.values()) {
+			footprints.add(footprint(data));
+		}
+
+		return footprints;
+	}
+
+	public static ConfigFootprint footprint(Class<?> clazz) {
+		return footprint(CONFIGS.get(clazz));
+	}
+
+	//Returns the fully qualified names of all properties whose names start with the specified
+	//prefix in alphabetical order
+	public static List<String> findProperties(Class<?> clazz, String prefix) {
+		final List<String> names = new ArrayList<>();
+
+		for (Property property : CONFIGS.get(clazz).index.find(prefix)) {
+			names.add(property.getFullyQualifiedName());
+		}
+
+		return names;
+	}
+
+	public static Object getValue(Class<?> clazz, String name) {
+		return CONFIGS.get(clazz).getProperty(name).getValue();
+	}
+
+	public static int getInt(Class<?> clazz, String name) {
+		return CONFIGS.get(clazz).getProperty(name).getInt();
+	}
+
+	public static long getLong(Class<?> clazz, String name) {
+		return CONFIGS.get(clazz).getProperty(name).getLong();
+	}
+
+	public static double getDouble(Class<?> clazz, String name) {
+		return CONFIGS.get(clazz).getProperty(name).getDouble();
+	}
+
+	public static boolean getBoolean(Class<?> clazz, String name) {
+		return CONFIGS.get(clazz).getProperty(name).getBoolean();
+	}
+
+	//Validates the value, sets the field and updates the configuration tree without reloading
+	//the rest of the configuration.
+	//The change is persisted through the journal (see writeToJournal).
+	public static void set(Class<?> clazz, String name, Object value) {
+		final ConfigData data = CONFIGS.get(clazz);
+		data.beginWrite();
+
+		try {
+			final Property property = data.getProperty(name);
+
+			//In low memory mode, only this property is serialized into a temporary tree
+			final CommentedFileConfig config =
+					data.config == null ? data.createConfig() : data.config;
+			final Object oldValue;
+
+			try {
+				if (config != data.config) {
+					property.serialize(config);
 				}
+
+				oldValue = config.get(property.getPath());
+				property.setValue(config, value);
+			} catch (Exception ex) {
+				throw ConfigException.property(name, ex);
 			}
 
-			subConfigs.subList(0, size).clear();
+			data.delayedLoad.remove(name);
+
+			final Object newValue = config.get(property.getPath());
+
+			if (Objects.equals(oldValue, newValue)) {
+				return;
+			}
+
+			if (data.updateEpoch(property)) {
+				onEpochAdvanced(data);
+			}
+
+			onReload(property.getCategory());
+
+			if (data.region == null || data.region.isPublisher()) {
+				persist(clazz, data, Collections.singletonMap(name, newValue));
+			}
+		} finally {
+			data.endWrite();
+		}
+	}
+
+	//Loads the properties whose type adapters could not load them earlier (see
+	//TypeAdapter#shouldLoad) without reloading any other properties.
+	//Resulting changes are persisted through the journal (see writeToJournal).
+	//Returns the names of the properties that still cannot be loaded.
+	public static Map<Class<?>, List<String>> resolveDelayed() {
+		final Map<Class<?>, List<String>> unresolved = new HashMap<>();
+
+		for (Map.Entry<Class<?>, ConfigData> entry : CONFIGS.entrySet()) {
+			final ConfigData data = entry.getValue();
+
+			if (data.delayedLoad.isEmpty()) {
+				continue;
+			}
+
+			data.beginWrite();
+
+			try {
+				resolveDelayed(entry.getKey(), data, unresolved);
+			} finally {
+				data.endWrite();
+			}
+		}
+
+		return unresolved;
+	}
+
+	//Threads other than the one that modifies the configuration should only access the tree
+	//from within read.
+	//In low memory mode, the returned tree may be a copy that does not reflect later changes.
+	public static CommentedFileConfig get(Class<?> clazz) {
+		final ConfigData data = CONFIGS.get(clazz);
+		final CommentedFileConfig config = data.config;
+
+		if (config != null) {
+			return config;
+		}
+
+		//In low memory mode, the tree is rebuilt from the fields.
+		//A reader within read may hold the read lock, which cannot be upgraded, so if the write
+		//lock is not immediately available, the tree is built for this call without being kept.
+		if (!data.tryBeginWrite()) {
+			return buildConfig(data);
+		}
+
+		try {
+			return getConfig(data);
+		} finally {
+			data.endWrite();
+		}
+	}
+
+	//Runs the reader so that it observes either all or none of the changes made by each
+	//reload, write, set or decode, e.g. to read several related fields or the tree returned by
+	//get while another thread reloads the configuration.
+	//The reader is first run without locking and is only run again while holding a read lock
+	//if the configuration was modified concurrently, so it should not have side effects.
+	//Fields that are read directly outside of read are updated one at a time, so a reload may
+	//be observed partially applied.
+	public static <T> T read(Class<?> clazz, Supplier<T> reader) {
+		return CONFIGS.get(clazz).read(reader);
+	}
+
+	public static String getPathString(Class<?> clazz) {
+		return CONFIGS.get(clazz).pathString;
+	}
+
+	public static Path getPath(Class<?> clazz) {
+		return CONFIGS.get(clazz).path;
+	}
+
+	//The tree is walked while holding the write lock so that a concurrent reload cannot modify
+	//it during the walk
+	private static ConfigFootprint footprint(ConfigData data) {
+		data.beginWrite();
+
+		try {
+			return data.footprint(LARGEST_PROPERTIES);
+		} finally {
+			data.endWrite();
+		}
+	}
+
+	private static InstanceCache getInstances(ConfigData data) {
+		if (data.instances == null) {
+			throw new ConfigException(
+					"Instances are not enabled for configuration: " + data.clazz.getName()
+			);
+		}
+
+		return data.instances;
+	}
+
+	private static boolean updateEpochs(ConfigData data) {
+		if (!data.updateEpochs()) {
+			return false;
+		}
+
+		onEpochAdvanced(data);
+		return true;
+	}
+
+	private static void onEpochAdvanced(ConfigData data) {
+		GLOBAL_EPOCH.incrementAndGet();
+
+		for (Derived<?> derived : data.derived) {
+			derived.update(data);
+		}
+	}
+
+	private static void onReload(Category category) {
+		category.onReload(false);
+
+		if (client) {
+			category.onReload(true);
 		}
+	}
+
+	private static void persist(Class<?> clazz, ConfigData data, Map<String, Object> changes) {
+		data.journal.append(changes);
+
+		if (data.journal.shouldCompact(journalMaxSize, journalMaxAge)) {
+			writeToDisk(clazz);
+		} else if (data.region != null && !changes.isEmpty()) {
+			data.region.publish(data, data.config == null ? buildConfig(data) : data.config);
+		}
+	}
+
+	private static void resolveDelayed(
+			Class<?> clazz, ConfigData data, Map<Class<?>, List<String>> unresolved
+	) {
+		final CommentedFileConfig config =
+				data.config == null ? data.createConfig() : data.config;
+		final Map<String, Object> changes = new LinkedHashMap<>();
+		final Set<Category> reloaded = new HashSet<>();
+		final Iterator<Map.Entry<String, Object>> it = data.delayedLoad.entrySet().iterator();
+
+		while (it.hasNext()) {
+			final Map.Entry<String, Object> delayedLoad = it.next();
+			final String name = delayedLoad.getKey();
+			final Property property = data.index.get(name);
+
+			if (!property.shouldLoad()) {
+				unresolved.computeIfAbsent(clazz, key -> new ArrayList<>()).add(name);
+				continue;
+			}
+
+			try {
+				property.reloadDefault();
+				config.set(property.getPath(), delayedLoad.getValue());
+				property.deserialize(config);
+				property.serialize(config);
+			} catch (Exception ex) {
+				throw ConfigException.property(name, ex);
+			}
+
+			it.remove();
+			reloaded.add(property.getCategory());
+
+			final Object value = config.get(property.getPath());
+
+			if (!Objects.equals(delayedLoad.getValue(), value)) {
+				changes.put(name, value);
+			}
+		}
+
+		updateEpochs(data);
 
 		for (Category category : data.categories) {
-			category.initialize(data.config);
+			if (reloaded.contains(category)) {
+				onReload(category);
+			}
+		}
+
+		if (data.region == null || data.region.isPublisher()) {
+			persist(clazz, data, changes);
+		}
+	}
 
-			category.onReload(false);
+	private static CommentedFileConfig getConfig(ConfigData data) {
+		if (data.config == null) {
+			data.config = buildConfig(data);
+		}
 
-			if (client) {
-				category.onReload(true);
+		return data.config;
+	}
+
+	private static CommentedFileConfig buildConfig(ConfigData data) {
+		final CommentedFileConfig config = data.createConfig();
+		serialize(data, config, false, null);
+		return config;
+	}
+
+	//If shard is not null, only the categories in that shard are serialized
+	private static void serialize(
+			ConfigData data, CommentedFileConfig config, boolean reload, String shard
+	) {
+		for (Category category : data.categories) {
+			if (shard != null && !shard.equals(ConfigData.getShard(category))) {
+				continue;
+			}
+
+			category.initialize(config);
+
+			if (reload) {
+				onReload(category);
 			}
 
 			for (Property property : category.properties) {
@@ -157,34 +941,62 @@ public final class ConfigManager {
 
 				try {
 					//Even if this is replaced by delayedLoad anyway, Property#serialize
-					//sets the comment so that it doesn't get removed below
-					property.serialize(data.config);
+					//sets the comment so that it doesn't get removed afterwards
+					property.serialize(config);
 
 					final Object delayedLoad = data.delayedLoad.get(name);
 
 					if (delayedLoad != null) {
-						data.config.set(name, delayedLoad);
+						config.set(property.getPath(), delayedLoad);
 					}
 				} catch (Exception ex) {
 					throw ConfigException.property(name, ex);
 				}
 			}
 		}
+	}
+
+	private static void removeComments(CommentedConfig config) {
+		final List<CommentedConfig> subConfigs = new ArrayList<>();
+		subConfigs.add(config);
+
+		while (!subConfigs.isEmpty()) {
+			final int size = subConfigs.size();
+
+			for (int i = 0; i < size; i++) {
+				for (CommentedConfig.Entry entry : subConfigs.get(i).entrySet()) {
+					entry.removeComment();
+
+					final Object raw = entry.getRawValue();
+
+					if (raw instanceof CommentedConfig) {
+						subConfigs.add((CommentedConfig) raw);
+					}
+				}
+			}
 
-		//Remove all entries without a comment, i.e. entries that are not defined in the
-		//configuration class
+			subConfigs.subList(0, size).clear();
+		}
+	}
 
-		subConfigs.add(data.config);
+	private static void removeUncommentedEntries(CommentedConfig config) {
+		final List<CommentedConfig> subConfigs = new ArrayList<>();
+		subConfigs.add(config);
 
 		while (!subConfigs.isEmpty()) {
 			final int size = subConfigs.size();
 
 			for (int i = 0; i < size; i++) {
 				final CommentedConfig subConfig = subConfigs.get(i);
-				final Set<String> toRemove = new HashSet<>();
+				//Usually nothing is removed, so this is only allocated when necessary
+				List<String> toRemove = null;
 
 				for (CommentedConfig.Entry entry : subConfig.entrySet()) {
 					if (entry.getComment() == null) {
+						if (toRemove == null) {
+							toRemove = new ArrayList<>();
+						}
+
 						toRemove.add(entry.getKey());
 						continue;
 					}
@@ -196,33 +1008,13 @@ public final class ConfigManager {
 					}
 				}
 
-				toRemove.forEach(subConfig::remove);
+				if (toRemove != null) {
+					toRemove.forEach(subConfig::remove);
+				}
 			}
 
 			subConfigs.subList(0, size).clear();
 		}
-
-		data.config.save();
-
-		try {
-			final List<String> lines = new ArrayList<>(Files.readAllLines(data.path));
-			lines.addAll(0, data.comment);
-			Files.write(data.path, lines);
-		} catch (IOException ex) {
-			throw new ConfigException("Failed to write config", ex);
-		}
-	}
-
-	public static CommentedFileConfig get(Class<?> clazz) {
-		return CONFIGS.get(clazz).config;
-	}
-
-	public static String getPathString(Class<?> clazz) {
-		return CONFIGS.get(clazz).pathString;
-	}
-
-	public static Path getPath(Class<?> clazz) {
-		return CONFIGS.get(clazz).path;
 	}
 
 	private static void loadCategories(
@@ -320,7 +1112,7 @@ public final class ConfigManager {
 			final String previous = previousData == null ? null : previousData.value();
 
 			try {
-				category.properties.add(new Property(category, name, field, comment, previous));
+				category.properties.add(new Property(category, name, field, previous));
 			} catch (RuntimeException ex) {
 				throw new ConfigException(name, ex);
 			}
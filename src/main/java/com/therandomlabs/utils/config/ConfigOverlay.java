@@ -0,0 +1,177 @@
+package com.therandomlabs.utils.config;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.electronwill.nightconfig.core.file.CommentedFileConfig;
+
+//A sparse layer on top of a configuration class, e.g. for an environment that differs from
+//the base configuration in only a few values.
+//Only overridden values are stored, both in memory and in the overlay file; all other values
+//are read from the static fields of the class, so changes to the base configuration are
+//visible through every overlay that does not override them.
+//Overlays are loaded by ConfigManager#getOverlay.
+//An overlay may be used by several threads; its overrides are guarded by its own monitor.
+public final class ConfigOverlay {
+	private final ConfigData data;
+	private final String id;
+	private final Path path;
+	//One bit per Property#index, set if the property is overridden, so that reading a value
+	//that is not overridden does not require a map lookup
+	private final long[] overridden;
+	private final Map<Property, Object> overrides = new HashMap<>();
+	//Raw values of overrides whose type adapters could not load them yet
+	//(see TypeAdapter#shouldLoad)
+	private final Map<Property, Object> delayedLoad = new HashMap<>();
+	private boolean dirty;
+
+	ConfigOverlay(ConfigData data, String id, Path path) {
+		this.data = data;
+		this.id = id;
+		this.path = path;
+		overridden = new long[(data.properties.size() + 63) / 64];
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public Path getPath() {
+		return path;
+	}
+
+	public Object get(String name) {
+		return get(data.getProperty(name));
+	}
+
+	//The typed getters follow the same rules as ConfigManager#getInt etc.
+	public int getInt(String name) {
+		final Property property = data.getProperty(name);
+		return property.toInt(get(property));
+	}
+
+	public long getLong(String name) {
+		final Property property = data.getProperty(name);
+		return property.toLong(get(property));
+	}
+
+	public double getDouble(String name) {
+		final Property property = data.getProperty(name);
+		return property.toDouble(get(property));
+	}
+
+	public boolean getBoolean(String name) {
+		final Property property = data.getProperty(name);
+		return property.toBoolean(get(property));
+	}
+
+	public synchronized boolean isOverridden(String name) {
+		return isOverridden(data.getProperty(name));
+	}
+
+	//Overrides the base value in this overlay only.
+	//The value is validated in the same way as ConfigManager#set.
+	public synchronized void set(String name, Object value) {
+		final Property property = data.getProperty(name);
+		final Object newValue;
+
+		try {
+			newValue = property.toValue(value);
+		} catch (RuntimeException ex) {
+			throw ConfigException.property(name, ex);
+		}
+
+		delayedLoad.remove(property);
+		override(property, newValue);
+		dirty = true;
+	}
+
+	//Removes the override so that the base value is used again
+	public synchronized void reset(String name) {
+		final Property property = data.getProperty(name);
+
+		if (!isOverridden(property)) {
+			return;
+		}
+
+		delayedLoad.remove(property);
+		overrides.remove(property);
+		overridden[property.index >> 6] &= ~(1L << property.index);
+		dirty = true;
+	}
+
+	//Writes the overrides to the overlay file if they have changed since they were loaded.
+	//The file is deleted if there are no overrides.
+	public synchronized void save() {
+		if (!dirty) {
+			return;
+		}
+
+		if (overrides.isEmpty()) {
+			try {
+				Files.deleteIfExists(path);
+			} catch (IOException ex) {
+				throw new ConfigException("Failed to delete config overlay: " + path, ex);
+			}
+
+			dirty = false;
+			return;
+		}
+
+		final CommentedFileConfig config = data.createConfig(path);
+		final Set<Category> categories = new HashSet<>();
+
+		for (Property property : data.properties) {
+			if (!isOverridden(property)) {
+				continue;
+			}
+
+			final Object raw = delayedLoad.get(property);
+
+			if (raw == null) {
+				property.write(config, overrides.get(property));
+			} else {
+				config.set(property.getPath(), raw);
+			}
+
+			categories.add(property.getCategory());
+		}
+
+		for (Category category : categories) {
+			category.initialize(config);
+		}
+
+		data.save(config, path);
+		dirty = false;
+	}
+
+	synchronized void load() {
+		data.loadValues(path, delayedLoad, this::override);
+	}
+
+	private synchronized Object get(Property property) {
+		if (!isOverridden(property)) {
+			return property.getValue();
+		}
+
+		if (!delayedLoad.isEmpty()) {
+			data.resolveDelayed(path, delayedLoad, property, this::override);
+		}
+
+		return overrides.get(property);
+	}
+
+	private void override(Property property, Object value) {
+		overrides.put(property, value);
+		overridden[property.index >> 6] |= 1L << property.index;
+	}
+
+	private boolean isOverridden(Property property) {
+		return (overridden[property.index >> 6] & (1L << property.index)) != 0;
+	}
+}
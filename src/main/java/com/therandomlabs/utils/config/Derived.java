@@ -0,0 +1,51 @@
+package com.therandomlabs.utils.config;
+
+import java.util.function.Supplier;
+
+//A value that is computed from the values of some properties, e.g. a Pattern compiled from a
+//String property (see ConfigManager#derive).
+//The value is recomputed on the configuration thread after any reload, set or decode that
+//changes one of the properties, and can be read from any thread without locking.
+public final class Derived<T> {
+	private final Supplier<T> supplier;
+	//Property indexes
+	private final int[] inputs;
+	//The configuration epoch at which the value was last computed
+	private long epoch = -1;
+	private volatile T value;
+
+	Derived(Supplier<T> supplier, int[] inputs) {
+		this.supplier = supplier;
+		this.inputs = inputs;
+	}
+
+	public T get() {
+		return value;
+	}
+
+	//Recomputes the value if any input has changed since it was last computed
+	void update(ConfigData data) {
+		if (epoch != -1) {
+			boolean changed = false;
+
+			for (int input : inputs) {
+				if (data.getEpoch(input) > epoch) {
+					changed = true;
+					break;
+				}
+			}
+
+			if (!changed) {
+				return;
+			}
+		}
+
+		try {
+			value = supplier.get();
+		} catch (RuntimeException ex) {
+			throw new ConfigException("Failed to compute derived configuration value", ex);
+		}
+
+		epoch = data.getEpoch();
+	}
+}
@@ -0,0 +1,121 @@
+package com.therandomlabs.utils.config;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.Locale;
+
+//Durations are written as amounts followed by units, e.g. 1h30m or 250ms.
+//Supported units are d, h, m, s, ms, us and ns, and amounts may be fractional, e.g. 1.5s.
+//ISO-8601 durations such as PT30S are also accepted.
+final class DurationFormat {
+	private static final String[] UNITS = {"d", "h", "m", "s", "ms", "us", "ns"};
+	private static final long[] NANOS = {
+			86_400_000_000_000L, 3_600_000_000_000L, 60_000_000_000L, 1_000_000_000L, 1_000_000L,
+			1_000L, 1L
+	};
+
+	private DurationFormat() {}
+
+	//Throws an IllegalArgumentException (or a DateTimeParseException for invalid ISO-8601
+	//durations) if the duration is invalid
+	static Duration parse(String duration) {
+		final String trimmed = duration.trim();
+		final boolean negative = trimmed.startsWith("-");
+		int index = negative ? 1 : 0;
+
+		if (index < trimmed.length() && Character.toUpperCase(trimmed.charAt(index)) == 'P') {
+			return Duration.parse(trimmed);
+		}
+
+		if (index == trimmed.length()) {
+			throw new IllegalArgumentException("Invalid duration: " + duration);
+		}
+
+		BigDecimal nanos = BigDecimal.ZERO;
+
+		while (index < trimmed.length()) {
+			final int amountStart = index;
+
+			while (index < trimmed.length() && (Character.isDigit(trimmed.charAt(index)) ||
+					trimmed.charAt(index) == '.')) {
+				index++;
+			}
+
+			final int unitStart = index;
+
+			while (index < trimmed.length() && Character.isLetter(trimmed.charAt(index))) {
+				index++;
+			}
+
+			if (amountStart == unitStart || unitStart == index) {
+				throw new IllegalArgumentException("Invalid duration: " + duration);
+			}
+
+			final BigDecimal amount = new BigDecimal(trimmed.substring(amountStart, unitStart));
+			final long unitNanos = getNanos(trimmed.substring(unitStart, index), duration);
+			nanos = nanos.add(amount.multiply(BigDecimal.valueOf(unitNanos)));
+
+			while (index < trimmed.length() && Character.isWhitespace(trimmed.charAt(index))) {
+				index++;
+			}
+		}
+
+		final long totalNanos;
+
+		try {
+			totalNanos = nanos.setScale(0, RoundingMode.HALF_UP).longValueExact();
+		} catch (ArithmeticException ex) {
+			throw new IllegalArgumentException("Duration is too long: " + duration, ex);
+		}
+
+		return Duration.ofNanos(negative ? -totalNanos : totalNanos);
+	}
+
+	static String format(Duration duration) {
+		if (duration.isZero()) {
+			return "0s";
+		}
+
+		final StringBuilder builder = new StringBuilder();
+
+		if (duration.isNegative()) {
+			builder.append('-');
+			duration = duration.negated();
+		}
+
+		long seconds = duration.getSeconds();
+		long nanos = duration.getNano();
+
+		for (int i = 0; i < UNITS.length; i++) {
+			final long amount;
+
+			if (NANOS[i] >= NANOS[3]) {
+				final long unitSeconds = NANOS[i] / NANOS[3];
+				amount = seconds / unitSeconds;
+				seconds %= unitSeconds;
+			} else {
+				amount = nanos / NANOS[i];
+				nanos %= NANOS[i];
+			}
+
+			if (amount != 0) {
+				builder.append(amount).append(UNITS[i]);
+			}
+		}
+
+		return builder.toString();
+	}
+
+	private static long getNanos(String unit, String duration) {
+		final String lowerCase = unit.toLowerCase(Locale.ROOT);
+
+		for (int i = 0; i < UNITS.length; i++) {
+			if (UNITS[i].equals(lowerCase)) {
+				return NANOS[i];
+			}
+		}
+
+		throw new IllegalArgumentException("Invalid duration unit: " + duration);
+	}
+}
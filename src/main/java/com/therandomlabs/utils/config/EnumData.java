@@ -0,0 +1,78 @@
+package com.therandomlabs.utils.config;
+
+//Enum metadata is shared between all properties of the same enum type
+@SuppressWarnings("rawtypes")
+final class EnumData {
+	private static final ClassValue<EnumData> CACHE = new ClassValue<EnumData>() {
+		@Override
+		protected EnumData computeValue(Class<?> type) {
+			return new EnumData(type);
+		}
+	};
+
+	final Class<?> enumClass;
+	final Enum[] constants;
+	final String[] validValues;
+	final String[] validValuesDisplay;
+
+	private EnumData(Class<?> enumClass) {
+		this.enumClass = enumClass;
+		constants = (Enum[]) enumClass.getEnumConstants();
+		validValues = new String[constants.length];
+		validValuesDisplay = new String[constants.length];
+
+		for (int i = 0; i < constants.length; i++) {
+			validValues[i] = constants[i].name();
+			validValuesDisplay[i] = constants[i].toString();
+		}
+	}
+
+	//Ignore underscores and case when matching enums
+	//Hopefully this will never cause issues
+	Enum get(String name) {
+		if (name == null) {
+			return null;
+		}
+
+		for (int i = 0; i < constants.length; i++) {
+			if (matches(validValues[i], name)) {
+				return constants[i];
+			}
+		}
+
+		return null;
+	}
+
+	static EnumData get(Class<?> enumClass) {
+		return CACHE.get(enumClass);
+	}
+
+	//Compares without allocating copies of the names without underscores
+	private static boolean matches(String validValue, String name) {
+		int i = 0;
+		int j = 0;
+
+		while (true) {
+			while (i < validValue.length() && validValue.charAt(i) == '_') {
+				i++;
+			}
+
+			while (j < name.length() && name.charAt(j) == '_') {
+				j++;
+			}
+
+			if (i == validValue.length() || j == name.length()) {
+				return i == validValue.length() && j == name.length();
+			}
+
+			final char a = validValue.charAt(i++);
+			final char b = name.charAt(j++);
+
+			//Same comparison as String#equalsIgnoreCase
+			if (a != b && Character.toUpperCase(a) != Character.toUpperCase(b) &&
+					Character.toLowerCase(a) != Character.toLowerCase(b)) {
+				return false;
+			}
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package com.therandomlabs.utils.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.zip.CheckedInputStream;
+
+//The size, modification time and CRC32 of a file as it was last read or written, so that
+//unchanged files do not have to be parsed again
+final class FileStamp {
+	final long checksum;
+	//Whether the file was written by ConfigData rather than only read
+	final boolean written;
+	private final long size;
+	private long modified;
+
+	FileStamp(Path path, long checksum, boolean written) throws IOException {
+		final BasicFileAttributes attributes =
+				Files.readAttributes(path, BasicFileAttributes.class);
+		size = attributes.size();
+		modified = attributes.lastModifiedTime().toMillis();
+		this.checksum = checksum;
+		this.written = written;
+	}
+
+	//Files with a different size have changed, and files with the same size and modification
+	//time have not.
+	//Otherwise, e.g. if a file has been touched or rewritten with the same contents, the
+	//checksum is compared.
+	boolean matches(Path path) {
+		try {
+			final BasicFileAttributes attributes =
+					Files.readAttributes(path, BasicFileAttributes.class);
+
+			if (attributes.size() != size) {
+				return false;
+			}
+
+			final long modified = attributes.lastModifiedTime().toMillis();
+
+			if (modified == this.modified) {
+				return true;
+			}
+
+			try (CheckedInputStream input = ConfigData.newInputStream(path)) {
+				drain(input);
+
+				if (input.getChecksum().getValue() != checksum) {
+					return false;
+				}
+			}
+
+			this.modified = modified;
+			return true;
+		} catch (IOException ex) {
+			return false;
+		}
+	}
+
+	static void drain(InputStream input) throws IOException {
+		final byte[] buffer = new byte[8192];
+
+		while (input.read(buffer) != -1) {
+			//Only the checksum is needed
+		}
+	}
+}
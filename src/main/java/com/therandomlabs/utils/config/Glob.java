@@ -0,0 +1,47 @@
+package com.therandomlabs.utils.config;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+
+//A PathMatcher that remembers its glob pattern so that it can be written back to a
+//configuration file.
+//Patterns use the syntax of FileSystem#getPathMatcher on the default file system.
+public final class Glob implements PathMatcher {
+	private final String pattern;
+	private final PathMatcher matcher;
+
+	private Glob(String pattern, PathMatcher matcher) {
+		this.pattern = pattern;
+		this.matcher = matcher;
+	}
+
+	//Throws an IllegalArgumentException if the pattern is invalid
+	public static Glob of(String pattern) {
+		return new Glob(pattern, FileSystems.getDefault().getPathMatcher("glob:" + pattern));
+	}
+
+	public String getPattern() {
+		return pattern;
+	}
+
+	@Override
+	public boolean matches(Path path) {
+		return matcher.matches(path);
+	}
+
+	@Override
+	public boolean equals(Object object) {
+		return object instanceof Glob && ((Glob) object).pattern.equals(pattern);
+	}
+
+	@Override
+	public int hashCode() {
+		return pattern.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return pattern;
+	}
+}
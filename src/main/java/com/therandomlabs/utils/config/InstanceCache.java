@@ -0,0 +1,52 @@
+package com.therandomlabs.utils.config;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+//Keeps at most a fixed number of configuration instances loaded.
+//The least recently used instance is written back and evicted when another is loaded.
+//Instances may be requested by any thread, so the cache is guarded by its own monitor.
+final class InstanceCache {
+	private final ConfigData data;
+	private final Path directory;
+	private final Map<String, ConfigInstance> loaded;
+
+	InstanceCache(ConfigData data, Path directory, int maxLoaded) {
+		if (maxLoaded < 1) {
+			throw new ConfigException("At least one configuration instance must be loadable");
+		}
+
+		this.data = data;
+		this.directory = directory.toAbsolutePath().normalize();
+		loaded = new LinkedHashMap<String, ConfigInstance>(16, 0.75F, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, ConfigInstance> eldest) {
+				if (size() <= maxLoaded) {
+					return false;
+				}
+
+				eldest.getValue().save();
+				return true;
+			}
+		};
+	}
+
+	synchronized ConfigInstance get(String id) {
+		ConfigInstance instance = loaded.get(id);
+
+		if (instance == null) {
+			instance = new ConfigInstance(data, id, ConfigData.getFile(directory, id));
+			instance.load();
+			loaded.put(id, instance);
+		}
+
+		return instance;
+	}
+
+	synchronized void saveAll() {
+		loaded.values().forEach(ConfigInstance::save);
+	}
+}
@@ -0,0 +1,69 @@
+package com.therandomlabs.utils.config;
+
+import java.nio.file.Path;
+import java.util.Objects;
+
+//A property value that is only converted and validated when it is first accessed, e.g. for
+//large arrays or expensive custom types that are rarely read.
+//Reloads only keep the raw value from the configuration file, and a new Lazy is only created
+//if the raw value has changed, so the converted value is cached until then.
+//Raw values that have not been accessed are written back to the configuration file as they
+//were read.
+public final class Lazy<T> {
+	//Null for values that did not come from a configuration file
+	private final Property property;
+	private final Path file;
+	private final Object raw;
+	private T value;
+	private volatile boolean resolved;
+
+	private Lazy(T value) {
+		property = null;
+		file = null;
+		raw = null;
+		this.value = value;
+		resolved = true;
+	}
+
+	Lazy(Property property, Path file, Object raw) {
+		this.property = property;
+		this.file = file;
+		this.raw = raw;
+	}
+
+	public static <T> Lazy<T> of(T value) {
+		return new Lazy<>(value);
+	}
+
+	@SuppressWarnings("unchecked")
+	public T get() {
+		if (!resolved) {
+			synchronized (this) {
+				if (!resolved) {
+					value = (T) property.resolve(file, raw);
+					resolved = true;
+				}
+			}
+		}
+
+		return value;
+	}
+
+	public boolean isResolved() {
+		return resolved;
+	}
+
+	//Returns null if the value did not come from a configuration file or has been accessed
+	Object getUnresolvedRaw() {
+		return resolved ? null : raw;
+	}
+
+	boolean hasRaw(Object raw) {
+		return property != null && Objects.equals(this.raw, raw);
+	}
+
+	long estimateHeapBytes() {
+		return MemoryEstimator.shallow(this) + MemoryEstimator.estimate(raw) +
+				(resolved ? MemoryEstimator.estimate(value) : 0);
+	}
+}
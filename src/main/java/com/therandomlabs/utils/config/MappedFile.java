@@ -0,0 +1,131 @@
+package com.therandomlabs.utils.config;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+
+//A read-only value that is stored in a sidecar file rather than inline in the configuration
+//file, which only stores the sidecar path (see MappedFileTypeAdapter).
+//Sidecar files are memory-mapped, so they should be replaced by moving a new file into place
+//rather than being rewritten in place while they are mapped.
+//Equality is identity: a sidecar file that has not changed is not mapped again, so reloads
+//return the same instance.
+public abstract class MappedFile {
+	//The path as written in the configuration file
+	final String name;
+	//Null for default values, which are empty until they are loaded
+	final Path file;
+	final ByteBuffer buffer;
+	//-1 if the file does not exist
+	private final long size;
+	private final long modified;
+	//Null if the file system does not provide file keys, e.g. inode numbers
+	private final Object key;
+
+	MappedFile(String name, Path file) {
+		this.name = name;
+		this.file = file;
+
+		if (file == null) {
+			buffer = ByteBuffer.allocate(0);
+			size = -1;
+			modified = 0;
+			key = null;
+			return;
+		}
+
+		final BasicFileAttributes attributes;
+
+		try {
+			attributes = Files.readAttributes(file, BasicFileAttributes.class);
+		} catch (NoSuchFileException ex) {
+			buffer = ByteBuffer.allocate(0);
+			size = -1;
+			modified = 0;
+			key = null;
+			return;
+		} catch (IOException ex) {
+			throw new ConfigException("Failed to read sidecar file: " + file, ex);
+		}
+
+		size = attributes.size();
+		modified = attributes.lastModifiedTime().toMillis();
+		key = attributes.fileKey();
+
+		if (size > Integer.MAX_VALUE) {
+			throw new ConfigException("Sidecar file is too large: " + file);
+		}
+
+		buffer = map(file);
+	}
+
+	public final String getName() {
+		return name;
+	}
+
+	@Override
+	public final String toString() {
+		return name;
+	}
+
+	//Mapped files are not counted because they are not on the heap
+	long estimateHeapBytes() {
+		final long size = MemoryEstimator.shallow(this) + MemoryEstimator.estimate(name) +
+				MemoryEstimator.shallow(buffer);
+		return buffer.isDirect() ? size : size + buffer.capacity();
+	}
+
+	//Whether the sidecar file still has the size and modification time it had when it was
+	//mapped.
+	//A file that is moved into place within the resolution of the modification time may have
+	//the same size and modification time, so the file key is also compared, or the contents if
+	//the file system does not provide file keys.
+	final boolean isCurrent() {
+		if (file == null) {
+			return true;
+		}
+
+		try {
+			final BasicFileAttributes attributes =
+					Files.readAttributes(file, BasicFileAttributes.class);
+
+			if (attributes.size() != size ||
+					attributes.lastModifiedTime().toMillis() != modified) {
+				return false;
+			}
+
+			if (key != null) {
+				return key.equals(attributes.fileKey());
+			}
+
+			final ByteBuffer contents = buffer.duplicate();
+			contents.clear();
+			return contents.equals(ByteBuffer.wrap(Files.readAllBytes(file)));
+		} catch (NoSuchFileException ex) {
+			return size == -1;
+		} catch (IOException ex) {
+			return false;
+		}
+	}
+
+	//File systems that do not support memory mapping, e.g. zip file systems, are read into
+	//the heap instead
+	private static ByteBuffer map(Path file) {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		} catch (UnsupportedOperationException ex) {
+			try {
+				return ByteBuffer.wrap(Files.readAllBytes(file)).asReadOnlyBuffer();
+			} catch (IOException ex2) {
+				throw new ConfigException("Failed to read sidecar file: " + file, ex2);
+			}
+		} catch (IOException ex) {
+			throw new ConfigException("Failed to map sidecar file: " + file, ex);
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package com.therandomlabs.utils.config;
+
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+import com.electronwill.nightconfig.core.file.CommentedFileConfig;
+
+//Only the sidecar path is stored in the configuration file, so writing the configuration never
+//rewrites the sidecar file.
+//Relative paths are resolved against the directory of the file that references them.
+//Sidecar files are cached by path and only mapped again when they change.
+final class MappedFileTypeAdapter implements TypeAdapter {
+	private final BiFunction<String, Path, MappedFile> factory;
+	private final Map<Path, MappedFile> cache = new ConcurrentHashMap<>();
+
+	MappedFileTypeAdapter(BiFunction<String, Path, MappedFile> factory) {
+		this.factory = factory;
+	}
+
+	@Override
+	public Object getValue(CommentedFileConfig config, List<String> path, Object defaultValue) {
+		final Object raw = config.get(path);
+		final String name = raw instanceof String ? (String) raw : ((MappedFile) defaultValue).name;
+		final Path file;
+
+		try {
+			final Path directory = config.getNioPath().toAbsolutePath().getParent();
+			file = directory.resolve(name).normalize();
+		} catch (InvalidPathException ex) {
+			return null;
+		}
+
+		final MappedFile cached = cache.get(file);
+
+		if (cached != null && cached.name.equals(name) && cached.isCurrent()) {
+			return cached;
+		}
+
+		final MappedFile mapped;
+
+		//Like invalid values of other types, invalid sidecar files, e.g. a packed array with a
+		//truncated element, fall back to the default value rather than aborting the reload
+		try {
+			mapped = factory.apply(name, file);
+		} catch (ConfigException ex) {
+			cache.remove(file);
+			return null;
+		}
+
+		cache.put(file, mapped);
+		return mapped;
+	}
+
+	@Override
+	public void setValue(CommentedFileConfig config, List<String> path, Object value) {
+		config.set(path, asString(value));
+	}
+
+	@Override
+	public String asString(Object value) {
+		return ((MappedFile) value).name;
+	}
+
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
+}
@@ -0,0 +1,80 @@
+package com.therandomlabs.utils.config;
+
+import java.nio.IntBuffer;
+import java.nio.file.Path;
+
+//A packed array of big-endian 32-bit integers stored in a sidecar file, e.g. a list of block IDs
+public final class MappedIntArray extends MappedFile {
+	private final IntBuffer ints;
+	//Sorted arrays are searched with a binary search
+	private final boolean sorted;
+
+	MappedIntArray(String name, Path file) {
+		super(name, file);
+
+		if (buffer.remaining() % Integer.BYTES != 0) {
+			throw new ConfigException("Sidecar file is not a packed int array: " + file);
+		}
+
+		ints = buffer.asIntBuffer();
+		sorted = isSorted(ints);
+	}
+
+	//Creates a default value; the path is relative to the configuration file's directory
+	public static MappedIntArray of(String path) {
+		return new MappedIntArray(path, null);
+	}
+
+	public int size() {
+		return ints.limit();
+	}
+
+	public int get(int index) {
+		return ints.get(index);
+	}
+
+	public boolean contains(int value) {
+		if (sorted) {
+			int low = 0;
+			int high = ints.limit() - 1;
+
+			while (low <= high) {
+				final int middle = (low + high) >>> 1;
+				final int element = ints.get(middle);
+
+				if (element < value) {
+					low = middle + 1;
+				} else if (element > value) {
+					high = middle - 1;
+				} else {
+					return true;
+				}
+			}
+
+			return false;
+		}
+
+		for (int i = 0; i < ints.limit(); i++) {
+			if (ints.get(i) == value) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	//Returns a read-only view of the array
+	public IntBuffer asBuffer() {
+		return ints.duplicate();
+	}
+
+	private static boolean isSorted(IntBuffer ints) {
+		for (int i = 1; i < ints.limit(); i++) {
+			if (ints.get(i - 1) > ints.get(i)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+}
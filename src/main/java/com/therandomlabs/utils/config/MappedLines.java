@@ -0,0 +1,127 @@
+package com.therandomlabs.utils.config;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Set;
+
+//A list of UTF-8 strings stored in a sidecar file, one entry per line, e.g. a list of item IDs.
+//Leading and trailing spaces and tabs are ignored, as are blank lines.
+//Lines are only decoded when they are accessed.
+public final class MappedLines extends MappedFile {
+	//The start and end offsets of each entry
+	private final int[] starts;
+	private final int[] ends;
+	private final List<String> list = new LineList();
+	//Built on the first call to asSet or contains
+	private volatile Set<String> set;
+
+	MappedLines(String name, Path file) {
+		super(name, file);
+
+		final int limit = buffer.limit();
+		int[] starts = new int[16];
+		int[] ends = new int[16];
+		int size = 0;
+		int lineStart = 0;
+
+		for (int i = 0; i <= limit; i++) {
+			if (i != limit && buffer.get(i) != '\n') {
+				continue;
+			}
+
+			int start = lineStart;
+			int end = i;
+			lineStart = i + 1;
+
+			while (start < end && isBlank(buffer.get(start))) {
+				start++;
+			}
+
+			while (end > start && isBlank(buffer.get(end - 1))) {
+				end--;
+			}
+
+			if (start == end) {
+				continue;
+			}
+
+			if (size == starts.length) {
+				starts = Arrays.copyOf(starts, size * 2);
+				ends = Arrays.copyOf(ends, size * 2);
+			}
+
+			starts[size] = start;
+			ends[size++] = end;
+		}
+
+		this.starts = Arrays.copyOf(starts, size);
+		this.ends = Arrays.copyOf(ends, size);
+	}
+
+	//Creates a default value; the path is relative to the configuration file's directory
+	public static MappedLines of(String path) {
+		return new MappedLines(path, null);
+	}
+
+	public int size() {
+		return starts.length;
+	}
+
+	public String get(int index) {
+		final byte[] bytes = new byte[ends[index] - starts[index]];
+		final ByteBuffer line = buffer.duplicate();
+		line.position(starts[index]);
+		line.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	public boolean contains(String value) {
+		return asSet().contains(value);
+	}
+
+	//Returns a read-only indexed view of the entries
+	public List<String> asList() {
+		return list;
+	}
+
+	//Returns a read-only set of the entries
+	public Set<String> asSet() {
+		Set<String> set = this.set;
+
+		if (set == null) {
+			set = Collections.unmodifiableSet(new HashSet<>(list));
+			this.set = set;
+		}
+
+		return set;
+	}
+
+	@Override
+	long estimateHeapBytes() {
+		return super.estimateHeapBytes() + MemoryEstimator.estimate(starts) +
+				MemoryEstimator.estimate(ends) + MemoryEstimator.estimate(set);
+	}
+
+	private static boolean isBlank(byte character) {
+		return character == ' ' || character == '\t' || character == '\r';
+	}
+
+	private final class LineList extends AbstractList<String> implements RandomAccess {
+		@Override
+		public String get(int index) {
+			return MappedLines.this.get(index);
+		}
+
+		@Override
+		public int size() {
+			return starts.length;
+		}
+	}
+}
@@ -0,0 +1,80 @@
+package com.therandomlabs.utils.config;
+
+import java.nio.LongBuffer;
+import java.nio.file.Path;
+
+//A packed array of big-endian 64-bit integers stored in a sidecar file
+public final class MappedLongArray extends MappedFile {
+	private final LongBuffer longs;
+	//Sorted arrays are searched with a binary search
+	private final boolean sorted;
+
+	MappedLongArray(String name, Path file) {
+		super(name, file);
+
+		if (buffer.remaining() % Long.BYTES != 0) {
+			throw new ConfigException("Sidecar file is not a packed long array: " + file);
+		}
+
+		longs = buffer.asLongBuffer();
+		sorted = isSorted(longs);
+	}
+
+	//Creates a default value; the path is relative to the configuration file's directory
+	public static MappedLongArray of(String path) {
+		return new MappedLongArray(path, null);
+	}
+
+	public int size() {
+		return longs.limit();
+	}
+
+	public long get(int index) {
+		return longs.get(index);
+	}
+
+	public boolean contains(long value) {
+		if (sorted) {
+			int low = 0;
+			int high = longs.limit() - 1;
+
+			while (low <= high) {
+				final int middle = (low + high) >>> 1;
+				final long element = longs.get(middle);
+
+				if (element < value) {
+					low = middle + 1;
+				} else if (element > value) {
+					high = middle - 1;
+				} else {
+					return true;
+				}
+			}
+
+			return false;
+		}
+
+		for (int i = 0; i < longs.limit(); i++) {
+			if (longs.get(i) == value) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	//Returns a read-only view of the array
+	public LongBuffer asBuffer() {
+		return longs.duplicate();
+	}
+
+	private static boolean isSorted(LongBuffer longs) {
+		for (int i = 1; i < longs.limit(); i++) {
+			if (longs.get(i - 1) > longs.get(i)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+}
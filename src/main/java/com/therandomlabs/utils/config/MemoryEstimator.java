@@ -0,0 +1,158 @@
+package com.therandomlabs.utils.config;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.Map;
+
+import com.electronwill.nightconfig.core.UnmodifiableCommentedConfig;
+import com.electronwill.nightconfig.core.UnmodifiableConfig;
+
+//Rough estimates of retained heap sizes on a 64-bit JVM with compressed references.
+//Strings are assumed to use two bytes per character, and objects of unknown types are counted
+//shallowly, so these are estimates rather than measurements.
+final class MemoryEstimator {
+	static final int HEADER = 12;
+	static final int REFERENCE = 4;
+	static final int ARRAY_HEADER = 16;
+	//A HashMap node and its share of the table
+	static final int MAP_ENTRY = 32 + REFERENCE;
+
+	private static final ClassValue<Long> SHALLOW_SIZES = new ClassValue<Long>() {
+		@Override
+		protected Long computeValue(Class<?> type) {
+			long size = HEADER;
+
+			for (Class<?> clazz = type; clazz != null; clazz = clazz.getSuperclass()) {
+				for (Field field : clazz.getDeclaredFields()) {
+					if (!Modifier.isStatic(field.getModifiers())) {
+						size += getSize(field.getType());
+					}
+				}
+			}
+
+			return align(size);
+		}
+	};
+
+	private MemoryEstimator() {}
+
+	static long estimate(Object value) {
+		if (value == null || value instanceof Enum || value instanceof Boolean) {
+			//Shared
+			return 0;
+		}
+
+		if (value instanceof String) {
+			return align(HEADER + Integer.BYTES + REFERENCE) +
+					align(ARRAY_HEADER + 2L * ((String) value).length());
+		}
+
+		if (value instanceof Long || value instanceof Double) {
+			return align(HEADER + Long.BYTES);
+		}
+
+		if (value instanceof Number || value instanceof Character) {
+			return align(HEADER + Integer.BYTES);
+		}
+
+		if (value.getClass().isArray()) {
+			return estimateArray(value);
+		}
+
+		if (value instanceof UnmodifiableConfig) {
+			return estimateConfig((UnmodifiableConfig) value);
+		}
+
+		if (value instanceof Collection) {
+			final Collection<?> collection = (Collection<?>) value;
+			long size = shallow(value) + align(ARRAY_HEADER + REFERENCE * collection.size());
+
+			for (Object element : collection) {
+				size += estimate(element);
+			}
+
+			return size;
+		}
+
+		if (value instanceof Map) {
+			return estimateMap((Map<?, ?>) value);
+		}
+
+		if (value instanceof MappedFile) {
+			return ((MappedFile) value).estimateHeapBytes();
+		}
+
+		if (value instanceof Lazy) {
+			return ((Lazy<?>) value).estimateHeapBytes();
+		}
+
+		return shallow(value);
+	}
+
+	static long shallow(Object value) {
+		return SHALLOW_SIZES.get(value.getClass());
+	}
+
+	static long align(long size) {
+		return (size + 7) & ~7;
+	}
+
+	private static long estimateArray(Object array) {
+		final int length = Array.getLength(array);
+		final Class<?> componentType = array.getClass().getComponentType();
+
+		if (componentType.isPrimitive()) {
+			return align(ARRAY_HEADER + (long) length * getSize(componentType));
+		}
+
+		long size = align(ARRAY_HEADER + (long) length * REFERENCE);
+
+		for (Object element : (Object[]) array) {
+			size += estimate(element);
+		}
+
+		return size;
+	}
+
+	private static long estimateConfig(UnmodifiableConfig config) {
+		long size = shallow(config) + estimateMap(config.valueMap());
+
+		if (config instanceof UnmodifiableCommentedConfig) {
+			size += estimateMap(((UnmodifiableCommentedConfig) config).commentMap());
+		}
+
+		return size;
+	}
+
+	private static long estimateMap(Map<?, ?> map) {
+		long size = shallow(map);
+
+		for (Map.Entry<?, ?> entry : map.entrySet()) {
+			size += MAP_ENTRY + estimate(entry.getKey()) + estimate(entry.getValue());
+		}
+
+		return size;
+	}
+
+	private static int getSize(Class<?> type) {
+		if (type == long.class || type == double.class) {
+			return Long.BYTES;
+		}
+
+		if (type == int.class || type == float.class) {
+			return Integer.BYTES;
+		}
+
+		if (type == short.class || type == char.class) {
+			return Short.BYTES;
+		}
+
+		if (type == byte.class || type == boolean.class) {
+			return Byte.BYTES;
+		}
+
+		return REFERENCE;
+	}
+}
@@ -18,19 +18,19 @@ public final class PathTypeAdapter implements TypeAdapter {
 	}
 
 	@Override
-	public Object getValue(CommentedFileConfig config, String name, Object defaultValue) {
+	public Object getValue(CommentedFileConfig config, List<String> path, Object defaultValue) {
 		if (!isArray) {
-			return getPath(config.get(name));
+			return getPath(config.get(path));
 		}
 
-		final List<String> list = config.get(name);
+		final List<String> list = config.get(path);
 		final List<Path> values = new ArrayList<>(list.size());
 
 		for (String element : list) {
-			final Path path = getPath(element);
+			final Path value = getPath(element);
 
-			if (path != null) {
-				values.add(path);
+			if (value != null) {
+				values.add(value);
 			}
 		}
 
@@ -38,16 +38,16 @@ public final class PathTypeAdapter implements TypeAdapter {
 	}
 
 	@Override
-	public void setValue(CommentedFileConfig config, String name, Object value) {
+	public void setValue(CommentedFileConfig config, List<String> path, Object value) {
 		if (isArray) {
 			config.set(
-					name,
+					path,
 					Arrays.stream((Object[]) value).
 							map(this::asString).
 							collect(Collectors.toList())
 			);
 		} else {
-			config.set(name, asString(value));
+			config.set(path, asString(value));
 		}
 	}
 
@@ -61,6 +61,11 @@ public final class PathTypeAdapter implements TypeAdapter {
 		return isArray;
 	}
 
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
+
 	private static Path getPath(String path) {
 		try {
 			return Paths.get(path).normalize();
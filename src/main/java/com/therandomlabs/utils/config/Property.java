@@ -1,69 +1,93 @@
 package com.therandomlabs.utils.config;
 
+import java.lang.ref.SoftReference;
 import java.lang.reflect.Array;
 import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 import com.electronwill.nightconfig.core.file.CommentedFileConfig;
+import com.electronwill.nightconfig.toml.TomlFormat;
 import org.apache.commons.lang3.ArrayUtils;
+import org.apache.commons.lang3.ClassUtils;
 import org.apache.commons.lang3.StringUtils;
 
 //Enums are implemented as a special case here instead of in TRLTypeAdapters
 //Numbers also receive some special treatment
 @SuppressWarnings("rawtypes")
 final class Property {
+	private final Category category;
 	private final Field field;
 
 	private final String fullyQualifiedName;
-	private final String languageKey;
+	//Paths are split once here so that night-config does not split the names on every access
+	private final List<String> path;
 
-	private final String previous;
+	private final List<String> previousPath;
+
+	//For Lazy fields, the type of the lazily loaded value
+	private final Class<?> type;
+	private final boolean lazy;
 
 	private final TypeAdapter adapter;
 	private final boolean isArray;
+	//Whether the adapter only overrides the name-based getValue or setValue
+	private final boolean getsByName;
+	private final boolean setsByName;
 
-	private final Class<?> enumClass;
-	private final Enum[] enumConstants;
-
-	private final String[] validValues;
-	private final String[] validValuesDisplay;
+	private final EnumData enumData;
 
 	private final boolean nonNull;
 
-	private final double min;
-	private final double max;
-
-	private final String[] blacklist;
-
-	private final String comment;
+	private final Validator validator;
 
 	private final boolean requiresRestart;
 	private final boolean requiresReload;
 
 	private Object defaultValue;
 
-	@SuppressWarnings("unchecked")
-	Property(Category category, String name, Field field, String comment, String previous) {
+	//The position of this property in ConfigData#properties
+	int index;
+
+	//Comments are only needed when the configuration is written, so they are built lazily
+	//and may be reclaimed between writes
+	private SoftReference<String> comment;
+
+	Property(Category category, String name, Field field, String previous) {
+		this.category = category;
 		this.field = field;
 
 		fullyQualifiedName = category.getFullyQualifiedName() + "." + name;
-		languageKey = category.getLanguageKeyPrefix() + name;
 
-		this.previous = previous;
+		final List<String> path = new ArrayList<>(category.path.size() + 1);
+		path.addAll(category.path);
+		path.add(name);
+		this.path = Collections.unmodifiableList(path);
+
+		previousPath = previous == null ? null : Collections.unmodifiableList(
+				Arrays.asList(StringUtils.split(previous, '.'))
+		);
 
-		final Class<?> clazz = field.getType();
+		lazy = field.getType() == Lazy.class;
+		final Class<?> clazz = lazy ? getLazyType(name, field) : field.getType();
+		type = clazz;
 
 		if (Enum.class.isAssignableFrom(clazz)) {
-			enumClass = clazz;
+			enumData = EnumData.get(clazz);
 			adapter = TypeAdapters.get(String.class);
 		} else if (Enum[].class.isAssignableFrom(clazz)) {
-			enumClass = clazz.getComponentType();
+			enumData = EnumData.get(clazz.getComponentType());
 			adapter = TypeAdapters.get(String[].class);
 		} else {
-			enumClass = null;
+			enumData = null;
 			adapter = TypeAdapters.get(clazz);
 		}
 
@@ -76,31 +100,14 @@ final class Property {
 			);
 		}
 
-		if (enumClass == null) {
-			enumConstants = null;
-			validValues = null;
-			validValuesDisplay = null;
-		} else {
-			final List<String> validValues = new ArrayList<>();
-			final List<String> validValuesDisplay = new ArrayList<>();
-
-			enumConstants = ((Class<? extends Enum>) enumClass).getEnumConstants();
-
-			for (Enum element : enumConstants) {
-				validValues.add(element.name());
-				validValuesDisplay.add(element.toString());
-			}
-
-			this.validValues = validValues.toArray(new String[0]);
-			this.validValuesDisplay = validValuesDisplay.toArray(new String[0]);
-		}
-
 		isArray = adapter.isArray();
+		getsByName = TypeAdapters.getsByName(adapter);
+		setsByName = TypeAdapters.setsByName(adapter);
 
 		final Object defaultValue;
 
 		try {
-			defaultValue = field.get(null);
+			defaultValue = getValue(field.get(null));
 		} catch (IllegalAccessException ex) {
 			throw ConfigException.property(name, ex);
 		}
@@ -114,6 +121,7 @@ final class Property {
 			);
 		}
 
+		checkGlobs(name, clazz, defaultValue);
 		this.defaultValue = defaultValue;
 
 		this.requiresRestart = field.getAnnotation(Config.RequiresRestart.class) != null;
@@ -125,133 +133,189 @@ final class Property {
 			);
 		}
 
-		final double smallestMin;
-		final double largestMax;
-
-		if (defaultValue instanceof Byte) {
-			smallestMin = Byte.MIN_VALUE;
-			largestMax = Byte.MAX_VALUE;
-		} else if (defaultValue instanceof Float) {
-			smallestMin = -Float.MAX_VALUE;
-			largestMax = Float.MAX_VALUE;
-		} else if (defaultValue instanceof Integer) {
-			smallestMin = Integer.MIN_VALUE;
-			largestMax = Integer.MAX_VALUE;
-		} else if (defaultValue instanceof Long) {
-			smallestMin = Long.MIN_VALUE;
-			largestMax = Long.MAX_VALUE;
-		} else if (defaultValue instanceof Short) {
-			smallestMin = Short.MIN_VALUE;
-			largestMax = Short.MAX_VALUE;
-		} else {
-			smallestMin = -Double.MAX_VALUE;
-			largestMax = Double.MAX_VALUE;
-		}
+		final String[] blacklist = getBlacklist();
+
+		final Class<?> valueClass = ClassUtils.primitiveToWrapper(
+				clazz.isArray() ? clazz.getComponentType() : clazz
+		);
 
 		final Config.RangeInt rangeInt = field.getAnnotation(Config.RangeInt.class);
 		final Config.RangeDouble rangeDouble = field.getAnnotation(Config.RangeDouble.class);
 
-		double min = -Double.MAX_VALUE;
-		double max = Double.MAX_VALUE;
+		final Config.Range range = field.getAnnotation(Config.Range.class);
 
-		if (rangeInt != null) {
-			if (rangeDouble != null) {
-				throw new ConfigException("Two ranges cannot be defined for property " + name);
-			}
+		if (rangeInt != null && rangeDouble != null ||
+				range != null && (rangeInt != null || rangeDouble != null)) {
+			throw new ConfigException("Two ranges cannot be defined for property " + name);
+		}
 
-			min = rangeInt.min();
-			max = rangeInt.max();
+		if (range != null && !(adapter instanceof StringTypeAdapter)) {
+			throw new ConfigException(
+					"Range can only be used for properties that are stored as strings: " + name
+			);
+		}
 
-			if (min == Integer.MIN_VALUE && min < smallestMin) {
-				min = smallestMin;
+		if (valueClass == Byte.class || valueClass == Short.class ||
+				valueClass == Integer.class || valueClass == Long.class) {
+			final long smallestMin;
+			final long largestMax;
+
+			if (valueClass == Byte.class) {
+				smallestMin = Byte.MIN_VALUE;
+				largestMax = Byte.MAX_VALUE;
+			} else if (valueClass == Short.class) {
+				smallestMin = Short.MIN_VALUE;
+				largestMax = Short.MAX_VALUE;
+			} else if (valueClass == Integer.class) {
+				smallestMin = Integer.MIN_VALUE;
+				largestMax = Integer.MAX_VALUE;
+			} else {
+				smallestMin = Long.MIN_VALUE;
+				largestMax = Long.MAX_VALUE;
 			}
 
-			if (max == Integer.MAX_VALUE && max > largestMax) {
-				max = largestMax;
-			}
+			long min = smallestMin;
+			long max = largestMax;
+
+			if (rangeInt != null) {
+				//The default bounds of RangeInt are only narrowed to the range of smaller types,
+				//so they still limit long properties to the int range
+				min = rangeInt.min() == Integer.MIN_VALUE ?
+						Math.max(smallestMin, Integer.MIN_VALUE) : rangeInt.min();
+				max = rangeInt.max() == Integer.MAX_VALUE ?
+						Math.min(largestMax, Integer.MAX_VALUE) : rangeInt.max();
+			} else if (rangeDouble != null) {
+				if (rangeDouble.min() != -Double.MAX_VALUE) {
+					if (rangeDouble.min() < smallestMin) {
+						throw new ConfigException(String.format(
+								"min is too small: %s < %s", rangeDouble.min(), smallestMin
+						));
+					}
 
-			if (min > max) {
-				throw new ConfigException("min cannot be larger than max for property " + name);
-			}
-		} else if (rangeDouble != null) {
-			min = rangeDouble.min();
-			max = rangeDouble.max();
+					min = (long) rangeDouble.min();
+				}
 
-			if (min == -Double.MAX_VALUE) {
-				min = smallestMin;
-			}
+				if (rangeDouble.max() != Double.MAX_VALUE) {
+					if (rangeDouble.max() > largestMax) {
+						throw new ConfigException(String.format(
+								"max is too large: %s > %s", rangeDouble.max(), largestMax
+						));
+					}
 
-			if (max == Double.MAX_VALUE) {
-				max = largestMax;
+					max = (long) rangeDouble.max();
+				}
 			}
 
-			if (min > max) {
-				throw new ConfigException("min cannot be larger than max");
+			validateRange(name, min, max, smallestMin, largestMax);
+			validator = Validators.integral(clazz, min, max, blacklist);
+		} else if (valueClass == Float.class || valueClass == Double.class) {
+			final double largestMax =
+					valueClass == Float.class ? Float.MAX_VALUE : Double.MAX_VALUE;
+			final double smallestMin = -largestMax;
+
+			double min = smallestMin;
+			double max = largestMax;
+
+			if (rangeInt != null) {
+				//Likewise, the default bounds of RangeInt limit floating point properties to the
+				//int range
+				min = rangeInt.min();
+				max = rangeInt.max();
+			} else if (rangeDouble != null) {
+				if (rangeDouble.min() != -Double.MAX_VALUE) {
+					min = rangeDouble.min();
+				}
+
+				if (rangeDouble.max() != Double.MAX_VALUE) {
+					max = rangeDouble.max();
+				}
 			}
-		}
 
-		if (min == -Double.MAX_VALUE) {
-			min = smallestMin;
+			validateRange(name, min, max, smallestMin, largestMax);
+			validator = Validators.floating(clazz, min, max, blacklist);
+		} else if (range != null) {
+			validator = Validators.comparable(
+					adapter, getBound(name, range.min()), getBound(name, range.max()), blacklist
+			);
+		} else {
+			validator = Validators.object(clazz, adapter, blacklist);
 		}
 
-		if (max == Double.MAX_VALUE) {
-			max = largestMax;
-		}
+		//Nullable custom types are not validated
+		if (defaultValue != null) {
+			final Object validated = validator.validate(defaultValue);
 
-		if (min < smallestMin) {
-			throw new ConfigException(String.format(
-					"min is too small: %s < %s", min, smallestMin
-			));
+			//Null array elements are dropped by the validator, but they are not blacklisted
+			if (validated == null || (isArray && validated != defaultValue &&
+					Array.getLength(validated) != countNonNull(defaultValue))) {
+				throw new ConfigException("Default value is blacklisted");
+			}
 		}
+	}
 
-		if (max > largestMax) {
-			throw new ConfigException(String.format(
-					"max is too large: %s > %s", max, largestMax
-			));
-		}
+	public boolean requiresRestart() {
+		return requiresRestart;
+	}
 
-		this.min = min;
-		this.max = max;
+	public boolean requiresReload() {
+		return requiresReload;
+	}
 
-		final Config.Blacklist blacklist = field.getAnnotation(Config.Blacklist.class);
-		this.blacklist = blacklist == null ? new String[0] : blacklist.value();
+	Category getCategory() {
+		return category;
+	}
 
-		if (isArray) {
-			for (Object element : ArrayConverter.toBoxedArray(defaultValue)) {
-				if (ArrayUtils.contains(this.blacklist, adapter.asString(element))) {
-					throw new ConfigException("Default value is blacklisted");
-				}
-			}
-		} else if (ArrayUtils.contains(this.blacklist, adapter.asString(defaultValue))) {
-			throw new ConfigException("Default value is blacklisted");
+	Class<?> getType() {
+		return type;
+	}
+
+	String getFullyQualifiedName() {
+		return fullyQualifiedName;
+	}
+
+	List<String> getPath() {
+		return path;
+	}
+
+	String getLanguageKey() {
+		return category.getLanguageKeyPrefix() + field.getName();
+	}
+
+	String[] getValidValues() {
+		return enumData.validValues.clone();
+	}
+
+	String[] getValidValuesDisplay() {
+		return enumData.validValuesDisplay.clone();
+	}
+
+	String getComment() {
+		String comment = this.comment == null ? null : this.comment.get();
+
+		if (comment != null) {
+			return comment;
 		}
 
-		final StringBuilder commentBuilder = new StringBuilder(comment);
+		final StringBuilder commentBuilder = new StringBuilder(" ").append(
+				StringUtils.join(field.getAnnotation(Config.Property.class).value(), "\n ")
+		);
 
-		if (enumConstants != null) {
+		if (enumData != null) {
 			commentBuilder.append("\n Valid values:");
 
-			for (Enum element : enumConstants) {
-				commentBuilder.append("\n ").append(element.name());
+			for (String validValue : enumData.validValues) {
+				commentBuilder.append("\n ").append(validValue);
 			}
 		}
 
-		if (defaultValue instanceof Number) {
-			if (defaultValue instanceof Double || defaultValue instanceof Float) {
-				commentBuilder.append("\n Min: ").
-						append(min).
-						append("\n Max: ").
-						append(max);
-			} else {
-				commentBuilder.append("\n Min: ").
-						append((long) min).
-						append("\n Max: ").
-						append((long) max);
-			}
+		if (!isArray) {
+			validator.appendRange(commentBuilder);
 		}
 
-		if (this.blacklist.length != 0) {
-			commentBuilder.append("\n Blacklist: ").append(Arrays.toString(this.blacklist));
+		final String[] blacklist = getBlacklist();
+
+		if (blacklist.length != 0) {
+			commentBuilder.append("\n Blacklist: ").append(Arrays.toString(blacklist));
 		}
 
 		commentBuilder.append("\n Default: ");
@@ -266,31 +330,13 @@ final class Property {
 			commentBuilder.append(adapter.asString(defaultValue));
 		}
 
-		this.comment = commentBuilder.toString();
-	}
-
-	public boolean requiresRestart() {
-		return requiresRestart;
-	}
-
-	public boolean requiresReload() {
-		return requiresReload;
-	}
-
-	String getFullyQualifiedName() {
-		return fullyQualifiedName;
-	}
-
-	String getLanguageKey() {
-		return languageKey;
-	}
-
-	String[] getValidValues() {
-		return validValues.clone();
+		comment = commentBuilder.toString();
+		this.comment = new SoftReference<>(comment);
+		return comment;
 	}
 
-	String[] getValidValuesDisplay() {
-		return validValuesDisplay.clone();
+	Object getDefaultValue() {
+		return defaultValue;
 	}
 
 	boolean shouldLoad() {
@@ -301,25 +347,32 @@ final class Property {
 	//is initialized
 	void reloadDefault() {
 		defaultValue = adapter.reloadDefault(defaultValue);
+		//The comment includes the default value
+		comment = null;
 	}
 
 	boolean exists(CommentedFileConfig config) {
-		return config.contains(fullyQualifiedName) ||
-				(previous != null && config.contains(previous));
+		return config.contains(path) || (previousPath != null && config.contains(previousPath));
 	}
 
-	Object get(CommentedFileConfig config) {
-		if (!config.contains(fullyQualifiedName)) {
-			if (previous != null && config.contains(previous)) {
-				config.set(fullyQualifiedName, config.get(previous));
+	//Ensures that the value exists in the configuration tree
+	void prepare(CommentedFileConfig config) {
+		if (!config.contains(path)) {
+			if (previousPath != null && config.contains(previousPath)) {
+				config.set(path, config.<Object>get(previousPath));
 			} else {
 				set(config, defaultValue);
 			}
 		}
+	}
+
+	Object get(CommentedFileConfig config) {
+		prepare(config);
 
-		//Validate
-		set(config, adapter.getValue(config, fullyQualifiedName, defaultValue));
-		return adapter.getValue(config, fullyQualifiedName, defaultValue);
+		//The validated value is returned directly rather than converted again from the tree
+		final Object value = validate(getAdapterValue(config));
+		store(config, value);
+		return value;
 	}
 
 	String getAsString(CommentedFileConfig config) {
@@ -327,133 +380,456 @@ final class Property {
 	}
 
 	void set(CommentedFileConfig config, Object value) {
-		config.setComment(fullyQualifiedName, comment);
-		adapter.setValue(config, fullyQualifiedName, validate(value, isArray));
+		store(config, validate(value));
 	}
 
-	Object validate(Object value, boolean isArray) {
+	Object validate(Object value) {
 		if (value == null && (!adapter.canBeNull() || nonNull)) {
 			value = defaultValue;
 		}
 
-		if (isArray) {
-			final boolean primitive = !(value instanceof Object[]);
-			final Object[] boxedArray = ArrayConverter.toBoxedArray(value);
-			final List<Object> filtered = new ArrayList<>();
+		return value == null ? null : validator.validate(value);
+	}
+
+	void serialize(CommentedFileConfig config) throws IllegalAccessException {
+		final Object value = field.get(null);
+		final Object raw = lazy && value != null ? ((Lazy<?>) value).getUnresolvedRaw() : null;
 
-			for (Object element : boxedArray) {
-				if (element != null) {
-					final Object validated = validate(element, false);
+		if (raw == null) {
+			write(config, getValue(value));
+		} else {
+			config.setComment(path, getComment());
+			config.set(path, raw);
+		}
+	}
 
-					if (validated != null) {
-						filtered.add(validated);
-					}
-				}
-			}
+	//Validates the specified value and writes it to the configuration tree
+	void write(CommentedFileConfig config, Object value) {
+		value = validate(value);
 
-			final Object[] filteredArray = filtered.toArray(Arrays.copyOf(boxedArray, 0));
-			return primitive ? ArrayConverter.toPrimitiveArray(filteredArray) : filteredArray;
-		} else if (ArrayUtils.contains(blacklist, adapter.asString(value))) {
-			return null;
+		if (value == null) {
+			value = defaultValue;
 		}
 
-		if (value instanceof Number) {
-			double number = ((Number) value).doubleValue();
+		if (enumData == null) {
+			set(config, value);
+		} else if (!isArray) {
+			set(config, ((Enum) value).name());
+		} else {
+			set(config, Arrays.stream((Enum[]) value).map(Enum::name).toArray(String[]::new));
+		}
+	}
 
-			if (number < min) {
-				number = min;
-			} else if (number > max) {
-				number = max;
-			}
+	//Whether two values of this property are equal, e.g. when deciding whether a reload
+	//changed the property
+	boolean valueEquals(Object value1, Object value2) {
+		if (value1 == null || value2 == null || !(adapter instanceof StringTypeAdapter) ||
+				value1 instanceof Lazy) {
+			return Objects.deepEquals(value1, value2);
+		}
 
-			if (value instanceof Byte) {
-				return (byte) number;
-			}
+		return ((StringTypeAdapter) adapter).valueEquals(value1, value2);
+	}
 
-			if (value instanceof Double) {
-				return number;
-			}
+	//The cached comment is only softly reachable from the property, so it is counted as part of
+	//the tree that holds it
+	long estimateSchemaBytes() {
+		return MemoryEstimator.shallow(this) + MemoryEstimator.estimate(fullyQualifiedName) +
+				MemoryEstimator.estimate(path) + MemoryEstimator.estimate(previousPath) +
+				MemoryEstimator.estimate(defaultValue);
+	}
 
-			if (value instanceof Float) {
-				return (float) number;
-			}
+	//Returns 0 if the tree has been released in low memory mode
+	long estimateTreeBytes(CommentedFileConfig config) {
+		if (config == null || !config.contains(path)) {
+			return 0;
+		}
 
-			if (value instanceof Integer) {
-				return (int) number;
-			}
+		return 2 * MemoryEstimator.MAP_ENTRY + MemoryEstimator.estimate(config.getRaw(path)) +
+				MemoryEstimator.estimate(config.getComment(path));
+	}
 
-			if (value instanceof Long) {
-				return (long) number;
-			}
+	//Whether convert may be called concurrently for different properties
+	boolean isThreadSafe() {
+		return enumData == null && !lazy && adapter.isThreadSafe();
+	}
 
-			if (value instanceof Short) {
-				return (short) number;
-			}
+	//Converts and validates the value in the configuration tree without modifying the tree
+	//or the field
+	//prepare must be called first
+	Object convert(CommentedFileConfig config) {
+		return validate(getAdapterValue(config));
+	}
+
+	//Sets the configuration tree value and the field to a value returned by convert
+	void apply(CommentedFileConfig config, Object value) throws IllegalAccessException {
+		set(config, value);
+		setField(value == null ? defaultValue : value);
+	}
+
+	//Lazy fields only keep the raw value, and are only replaced if it has changed
+	void deserialize(CommentedFileConfig config) throws IllegalAccessException {
+		if (!lazy) {
+			field.set(null, read(config));
+			return;
 		}
 
-		return value;
+		prepare(config);
+		config.setComment(path, getComment());
+
+		final Object raw = config.getRaw(path);
+		final Lazy<?> value = (Lazy<?>) field.get(null);
+
+		if (value == null || !value.hasRaw(raw)) {
+			field.set(null, new Lazy<>(this, config.getNioPath(), raw));
+		}
 	}
 
-	void serialize(CommentedFileConfig config) throws IllegalAccessException {
-		Object value = validate(field.get(null), isArray);
+	//Converts and validates the raw value of a Lazy field when it is first accessed, which
+	//may be on any thread
+	Object resolve(Path file, Object raw) {
+		final CommentedFileConfig config =
+				CommentedFileConfig.builder(file, TomlFormat.instance()).build();
+		config.set(path, raw);
 
-		if (value == null) {
-			value = defaultValue;
+		if (adapter.isThreadSafe()) {
+			return read(config);
 		}
 
-		if (enumConstants == null) {
-			set(config, value);
-		} else if (!isArray) {
-			set(config, ((Enum) value).name());
-		} else {
-			set(config, Arrays.stream((Enum[]) value).map(Enum::name).toArray(String[]::new));
+		synchronized (adapter) {
+			return read(config);
 		}
 	}
 
-	void deserialize(CommentedFileConfig config) throws IllegalAccessException {
-		if (enumConstants == null) {
+	//Returns the value that deserialize would set the field to
+	Object read(CommentedFileConfig config) {
+		if (enumData == null) {
 			final Object value = get(config);
 
 			if (nonNull && value == null) {
-				field.set(null, defaultValue);
-			} else {
-				final Object validated = validate(value, isArray);
-				field.set(null, validated == null ? defaultValue : validated);
+				return defaultValue;
 			}
 
-			return;
+			final Object validated = validate(value);
+			return validated == null ? defaultValue : validated;
 		}
 
 		if (!isArray) {
-			//Ignore underscores when matching enums
-			//Hopefully this will never cause issues
-			final String value = StringUtils.remove(getAsString(config), '_');
-
-			for (Enum element : enumConstants) {
-				if (StringUtils.remove(element.name(), '_').equalsIgnoreCase(value)) {
-					field.set(null, element);
-					return;
-				}
+			final Enum element = enumData.get(getAsString(config));
+			return element == null ? defaultValue : element;
+		}
+
+		return getEnums((String[]) get(config));
+	}
+
+	//Lazy fields are resolved
+	Object getValue() {
+		return getValue(getFieldValue());
+	}
+
+	//Lazy fields are not resolved, so this is used to detect changes without converting
+	//values that have not been accessed
+	Object getFieldValue() {
+		try {
+			return field.get(null);
+		} catch (IllegalAccessException ex) {
+			throw ConfigException.property(fullyQualifiedName, ex);
+		}
+	}
+
+	//The typed getters only perform widening primitive conversions, e.g. getLong accepts int
+	//fields but getInt does not accept long or double fields.
+	//Boxed and Lazy fields follow the same rule as primitive fields.
+	int getInt() {
+		if (!type.isPrimitive()) {
+			return toInt(getValue());
+		}
+
+		checkWidening(int.class);
+
+		try {
+			return field.getInt(null);
+		} catch (IllegalAccessException ex) {
+			throw ConfigException.property(fullyQualifiedName, ex);
+		}
+	}
+
+	long getLong() {
+		if (!type.isPrimitive()) {
+			return toLong(getValue());
+		}
+
+		checkWidening(long.class);
+
+		try {
+			return field.getLong(null);
+		} catch (IllegalAccessException ex) {
+			throw ConfigException.property(fullyQualifiedName, ex);
+		}
+	}
+
+	double getDouble() {
+		if (!type.isPrimitive()) {
+			return toDouble(getValue());
+		}
+
+		checkWidening(double.class);
+
+		try {
+			return field.getDouble(null);
+		} catch (IllegalAccessException ex) {
+			throw ConfigException.property(fullyQualifiedName, ex);
+		}
+	}
+
+	boolean getBoolean() {
+		if (!type.isPrimitive()) {
+			return toBoolean(getValue());
+		}
+
+		checkWidening(boolean.class);
+
+		try {
+			return field.getBoolean(null);
+		} catch (IllegalAccessException ex) {
+			throw ConfigException.property(fullyQualifiedName, ex);
+		}
+	}
+
+	//Converts a value of this property that is not stored in its field, e.g. a value of an
+	//instance or overlay, in the same way as getInt
+	int toInt(Object value) {
+		checkWidening(int.class);
+		return value instanceof Character ? (Character) value : ((Number) value).intValue();
+	}
+
+	long toLong(Object value) {
+		checkWidening(long.class);
+		return value instanceof Character ? (Character) value : ((Number) value).longValue();
+	}
+
+	double toDouble(Object value) {
+		checkWidening(double.class);
+		return value instanceof Character ? (Character) value : ((Number) value).doubleValue();
+	}
+
+	boolean toBoolean(Object value) {
+		checkWidening(boolean.class);
+		return (Boolean) value;
+	}
+
+	//Validates the specified value, sets the field to it and updates the configuration tree
+	//Numbers are converted to the field type, and enums may be specified by name
+	void setValue(CommentedFileConfig config, Object value) throws IllegalAccessException {
+		setField(toValue(value));
+		serialize(config);
+	}
+
+	//Converts and validates a value passed to setValue
+	Object toValue(Object value) {
+		if (value instanceof Number) {
+			value = convertNumber((Number) value);
+		} else if (enumData != null) {
+			if (value instanceof String) {
+				value = enumData.get((String) value);
+			} else if (value instanceof String[]) {
+				value = getEnums((String[]) value);
 			}
+		}
 
-			field.set(null, defaultValue);
-			return;
+		final Object validated = validate(value);
+		return validated == null ? defaultValue : validated;
+	}
+
+	private Object getValue(Object fieldValue) {
+		return lazy && fieldValue != null ? ((Lazy<?>) fieldValue).get() : fieldValue;
+	}
+
+	private void setField(Object value) throws IllegalAccessException {
+		field.set(null, lazy ? Lazy.of(value) : value);
+	}
+
+	private void checkWidening(Class<?> primitiveType) {
+		if (!ClassUtils.isAssignable(type, primitiveType, true)) {
+			throw ConfigException.property(fullyQualifiedName, new IllegalArgumentException(
+					type.getName() + " cannot be widened to " + primitiveType.getName()
+			));
 		}
+	}
 
-		final String[] values = (String[]) get(config);
-		final List<Object> enumValues = new ArrayList<>(values.length);
+	//Writes a value that has already been validated to the configuration tree
+	private void store(CommentedFileConfig config, Object value) {
+		config.setComment(path, getComment());
 
-		for (String value : values) {
-			value = StringUtils.remove(value, '_');
+		if (setsByName) {
+			adapter.setValue(config, fullyQualifiedName, value);
+		} else {
+			adapter.setValue(config, path, value);
+		}
+	}
 
-			for (Enum element : enumConstants) {
-				if (StringUtils.remove(element.name(), '_').equalsIgnoreCase(value)) {
-					enumValues.add(element);
-					break;
-				}
+	private Object getAdapterValue(CommentedFileConfig config) {
+		return getsByName ?
+				adapter.getValue(config, fullyQualifiedName, defaultValue) :
+				adapter.getValue(config, path, defaultValue);
+	}
+
+	private Object convertNumber(Number number) {
+		final Class<?> type = ClassUtils.primitiveToWrapper(this.type);
+
+		if (type == Byte.class) {
+			return number.byteValue();
+		}
+
+		if (type == Short.class) {
+			return number.shortValue();
+		}
+
+		if (type == Integer.class) {
+			return number.intValue();
+		}
+
+		if (type == Long.class) {
+			return number.longValue();
+		}
+
+		if (type == Float.class) {
+			return number.floatValue();
+		}
+
+		if (type == Double.class) {
+			return number.doubleValue();
+		}
+
+		return number;
+	}
+
+	private Object getEnums(String[] names) {
+		final List<Object> enumValues = new ArrayList<>(names.length);
+
+		for (String name : names) {
+			final Enum element = enumData.get(name);
+
+			if (element != null) {
+				enumValues.add(element);
+			}
+		}
+
+		return enumValues.toArray((Object[]) Array.newInstance(enumData.enumClass, 0));
+	}
+
+	private static Class<?> getLazyType(String name, Field field) {
+		final Type type = field.getGenericType();
+
+		if (type instanceof ParameterizedType) {
+			final Type valueType = ((ParameterizedType) type).getActualTypeArguments()[0];
+
+			if (valueType instanceof Class) {
+				return (Class<?>) valueType;
+			}
+		}
+
+		throw new ConfigException(
+				"Lazy configuration property must have a non-generic value type: " + name
+		);
+	}
+
+	@SuppressWarnings("unchecked")
+	private Comparable<Object> getBound(String name, String bound) {
+		if (bound.isEmpty()) {
+			return null;
+		}
+
+		final Object value = ((StringTypeAdapter) adapter).parse(bound);
+
+		if (!(value instanceof Comparable)) {
+			throw new ConfigException("Invalid range bound for property " + name + ": " + bound);
+		}
+
+		return (Comparable<Object>) value;
+	}
+
+	private static int countNonNull(Object array) {
+		final int length = Array.getLength(array);
+
+		if (array.getClass().getComponentType().isPrimitive()) {
+			return length;
+		}
+
+		int count = 0;
+
+		for (int i = 0; i < length; i++) {
+			if (Array.get(array, i) != null) {
+				count++;
 			}
 		}
 
-		field.set(null, enumValues.toArray((Object[]) Array.newInstance(enumClass, 0)));
+		return count;
+	}
+
+	//PathMatchers are stored as glob patterns, which can only be obtained from Globs
+	private static void checkGlobs(String name, Class<?> type, Object defaultValue) {
+		final Object[] matchers;
+
+		if (type == PathMatcher.class) {
+			matchers = new Object[] {defaultValue};
+		} else if (type == PathMatcher[].class && defaultValue != null) {
+			matchers = (Object[]) defaultValue;
+		} else {
+			return;
+		}
+
+		for (Object matcher : matchers) {
+			if (matcher != null && !(matcher instanceof Glob)) {
+				throw new ConfigException(
+						"Default value of PathMatcher property must consist of Globs: " + name
+				);
+			}
+		}
+	}
+
+	private String[] getBlacklist() {
+		final Config.Blacklist blacklist = field.getAnnotation(Config.Blacklist.class);
+		return blacklist == null ? ArrayUtils.EMPTY_STRING_ARRAY : blacklist.value();
+	}
+
+	private static void validateRange(
+			String name, double min, double max, double smallestMin, double largestMax
+	) {
+		if (min < smallestMin) {
+			throw new ConfigException(String.format(
+					"min is too small: %s < %s", min, smallestMin
+			));
+		}
+
+		if (max > largestMax) {
+			throw new ConfigException(String.format(
+					"max is too large: %s > %s", max, largestMax
+			));
+		}
+
+		if (min > max) {
+			throw new ConfigException("min cannot be larger than max for property " + name);
+		}
+	}
+
+	private static void validateRange(
+			String name, long min, long max, long smallestMin, long largestMax
+	) {
+		if (min < smallestMin) {
+			throw new ConfigException(String.format(
+					"min is too small: %s < %s", min, smallestMin
+			));
+		}
+
+		if (max > largestMax) {
+			throw new ConfigException(String.format(
+					"max is too large: %s > %s", max, largestMax
+			));
+		}
+
+		if (min > max) {
+			throw new ConfigException("min cannot be larger than max for property " + name);
+		}
 	}
 }
@@ -0,0 +1,86 @@
+package com.therandomlabs.utils.config;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.apache.commons.lang3.StringUtils;
+
+//Maps fully qualified property names to properties.
+//A trie of name segments is also maintained for prefix queries.
+final class PropertyIndex {
+	private final Map<String, Property> properties = new HashMap<>();
+	private final Node root = new Node();
+
+	PropertyIndex(List<Category> categories) {
+		//Segments such as category names are shared by many properties, so only one instance
+		//of each is kept
+		final Map<String, String> segments = new HashMap<>();
+
+		for (Category category : categories) {
+			for (Property property : category.properties) {
+				final String name = property.getFullyQualifiedName();
+				properties.put(name, property);
+
+				Node node = root;
+
+				for (String segment : StringUtils.split(name, '.')) {
+					node = node.children.computeIfAbsent(
+							segments.computeIfAbsent(segment, key -> key), key -> new Node()
+					);
+				}
+
+				node.property = property;
+			}
+		}
+	}
+
+	Property get(String name) {
+		return properties.get(name);
+	}
+
+	//The last segment of the prefix may be incomplete, e.g. "general.ena" matches
+	//"general.enabled", and "general." matches every property in the "general" category
+	List<Property> find(String prefix) {
+		final String[] segments = StringUtils.splitPreserveAllTokens(prefix, '.');
+		final List<Property> found = new ArrayList<>();
+		Node node = root;
+
+		for (int i = 0; i < segments.length - 1; i++) {
+			node = node.children.get(segments[i]);
+
+			if (node == null) {
+				return found;
+			}
+		}
+
+		final String partial = segments.length == 0 ? "" : segments[segments.length - 1];
+
+		for (Map.Entry<String, Node> child : node.children.tailMap(partial).entrySet()) {
+			if (!child.getKey().startsWith(partial)) {
+				break;
+			}
+
+			collect(child.getValue(), found);
+		}
+
+		return found;
+	}
+
+	private static void collect(Node node, List<Property> found) {
+		if (node.property != null) {
+			found.add(node.property);
+		}
+
+		for (Node child : node.children.values()) {
+			collect(child, found);
+		}
+	}
+
+	private static final class Node {
+		final TreeMap<String, Node> children = new TreeMap<>();
+		Property property;
+	}
+}
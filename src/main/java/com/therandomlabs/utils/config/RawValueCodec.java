@@ -0,0 +1,212 @@
+package com.therandomlabs.utils.config;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.electronwill.nightconfig.core.CommentedConfig;
+import com.electronwill.nightconfig.core.UnmodifiableConfig;
+import com.electronwill.nightconfig.toml.TomlFormat;
+
+//Encodes the values stored in a configuration tree, i.e. the values written by
+//TypeAdapter#setValue, so that they can be read back without parsing TOML
+final class RawValueCodec {
+	private static final byte NULL = 0;
+	private static final byte BOOLEAN = 1;
+	private static final byte BYTE = 2;
+	private static final byte SHORT = 3;
+	private static final byte INTEGER = 4;
+	private static final byte LONG = 5;
+	private static final byte FLOAT = 6;
+	private static final byte DOUBLE = 7;
+	private static final byte CHARACTER = 8;
+	private static final byte STRING = 9;
+	private static final byte LIST = 10;
+	//TOML dates and times
+	private static final byte LOCAL_DATE = 11;
+	private static final byte LOCAL_TIME = 12;
+	private static final byte LOCAL_DATE_TIME = 13;
+	private static final byte OFFSET_DATE_TIME = 14;
+	//Tables, e.g. in arrays of tables
+	private static final byte CONFIG = 15;
+
+	private RawValueCodec() {}
+
+	static void write(DataOutput output, Object value) throws IOException {
+		if (value == null) {
+			output.writeByte(NULL);
+		} else if (value instanceof Boolean) {
+			output.writeByte(BOOLEAN);
+			output.writeBoolean((Boolean) value);
+		} else if (value instanceof Byte) {
+			output.writeByte(BYTE);
+			output.writeByte((Byte) value);
+		} else if (value instanceof Short) {
+			output.writeByte(SHORT);
+			output.writeShort((Short) value);
+		} else if (value instanceof Integer) {
+			output.writeByte(INTEGER);
+			output.writeInt((Integer) value);
+		} else if (value instanceof Long) {
+			output.writeByte(LONG);
+			output.writeLong((Long) value);
+		} else if (value instanceof Float) {
+			output.writeByte(FLOAT);
+			output.writeFloat((Float) value);
+		} else if (value instanceof Double) {
+			output.writeByte(DOUBLE);
+			output.writeDouble((Double) value);
+		} else if (value instanceof Character) {
+			output.writeByte(CHARACTER);
+			output.writeChar((Character) value);
+		} else if (value instanceof List) {
+			final List<?> list = (List<?>) value;
+			output.writeByte(LIST);
+			output.writeInt(list.size());
+
+			for (Object element : list) {
+				write(output, element);
+			}
+		} else if (value instanceof String) {
+			output.writeByte(STRING);
+			writeString(output, (String) value);
+		} else if (value instanceof LocalDate) {
+			output.writeByte(LOCAL_DATE);
+			writeString(output, value.toString());
+		} else if (value instanceof LocalTime) {
+			output.writeByte(LOCAL_TIME);
+			writeString(output, value.toString());
+		} else if (value instanceof LocalDateTime) {
+			output.writeByte(LOCAL_DATE_TIME);
+			writeString(output, value.toString());
+		} else if (value instanceof OffsetDateTime) {
+			output.writeByte(OFFSET_DATE_TIME);
+			writeString(output, value.toString());
+		} else if (value instanceof UnmodifiableConfig) {
+			final Map<String, Object> values = ((UnmodifiableConfig) value).valueMap();
+			output.writeByte(CONFIG);
+			writeVarInt(output, values.size());
+
+			for (Map.Entry<String, Object> entry : values.entrySet()) {
+				writeString(output, entry.getKey());
+				write(output, entry.getValue());
+			}
+		} else {
+			//Reading any other value back as a string would silently change its type
+			throw new ConfigException(
+					"Unsupported configuration value type: " + value.getClass().getName()
+			);
+		}
+	}
+
+	static Object read(DataInput input) throws IOException {
+		final byte type = input.readByte();
+
+		switch (type) {
+			case NULL:
+				return null;
+			case BOOLEAN:
+				return input.readBoolean();
+			case BYTE:
+				return input.readByte();
+			case SHORT:
+				return input.readShort();
+			case INTEGER:
+				return input.readInt();
+			case LONG:
+				return input.readLong();
+			case FLOAT:
+				return input.readFloat();
+			case DOUBLE:
+				return input.readDouble();
+			case CHARACTER:
+				return input.readChar();
+			case STRING:
+				return readString(input);
+			case LIST:
+				final int size = input.readInt();
+				final List<Object> list = new ArrayList<>(size);
+
+				for (int i = 0; i < size; i++) {
+					list.add(read(input));
+				}
+
+				return list;
+			case LOCAL_DATE:
+				return LocalDate.parse(readString(input));
+			case LOCAL_TIME:
+				return LocalTime.parse(readString(input));
+			case LOCAL_DATE_TIME:
+				return LocalDateTime.parse(readString(input));
+			case OFFSET_DATE_TIME:
+				return OffsetDateTime.parse(readString(input));
+			case CONFIG:
+				final int entries = readVarInt(input);
+				final CommentedConfig config = TomlFormat.newConfig();
+
+				for (int i = 0; i < entries; i++) {
+					//Keys are not split into paths, since they may contain dots
+					config.valueMap().put(readString(input), read(input));
+				}
+
+				return config;
+			default:
+				throw new IOException("Invalid value type: " + type);
+		}
+	}
+
+	//Strings are written as a variable-length byte count followed by UTF-8 rather than with
+	//writeUTF, which cannot write strings longer than 65535 bytes
+	static void writeString(DataOutput output, String string) throws IOException {
+		final byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+		writeVarInt(output, bytes.length);
+		output.write(bytes);
+	}
+
+	static String readString(DataInput input) throws IOException {
+		final int length = readVarInt(input);
+
+		if (length < 0) {
+			throw new IOException("Invalid string length: " + length);
+		}
+
+		final byte[] bytes = new byte[length];
+		input.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	//Zigzag-encoded so that small negative numbers are also short
+	static void writeVarInt(DataOutput output, int value) throws IOException {
+		int zigzag = (value << 1) ^ (value >> 31);
+
+		while ((zigzag & ~0x7F) != 0) {
+			output.writeByte((zigzag & 0x7F) | 0x80);
+			zigzag >>>= 7;
+		}
+
+		output.writeByte(zigzag);
+	}
+
+	static int readVarInt(DataInput input) throws IOException {
+		int zigzag = 0;
+
+		for (int shift = 0; shift < 32; shift += 7) {
+			final byte b = input.readByte();
+			zigzag |= (b & 0x7F) << shift;
+
+			if ((b & 0x80) == 0) {
+				return (zigzag >>> 1) ^ -(zigzag & 1);
+			}
+		}
+
+		throw new IOException("Malformed variable-length integer");
+	}
+}
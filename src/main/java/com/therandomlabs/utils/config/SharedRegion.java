@@ -0,0 +1,248 @@
+package com.therandomlabs.utils.config;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+import com.electronwill.nightconfig.core.CommentedConfig;
+
+//A memory-mapped file through which one process publishes validated configuration values to
+//other processes on the same host.
+//The header contains a sequence number that is odd while the publisher is writing.
+//Because plain writes to a mapped buffer are not ordered across processes, readers also
+//verify a checksum of the payload they copied before applying it.
+final class SharedRegion {
+	private static final int MAGIC = 0x54524c43;
+
+	private static final int MAGIC_OFFSET = 0;
+	private static final int SCHEMA_OFFSET = 4;
+	private static final int SEQUENCE_OFFSET = 8;
+	private static final int LENGTH_OFFSET = 16;
+	private static final int CHECKSUM_OFFSET = 20;
+	private static final int HEADER_SIZE = 32;
+
+	private static final int PAGE_SIZE = 4096;
+	private static final int MAX_READ_ATTEMPTS = 100;
+
+	private final Path path;
+	private final boolean publisher;
+	private final int schemaHash;
+
+	private FileChannel channel;
+	//Kept so that the lock is held for as long as this process is the publisher
+	private FileLock lock;
+	private MappedByteBuffer buffer;
+	private long sequence;
+
+	private SharedRegion(Path path, boolean publisher, int schemaHash) {
+		this.path = path;
+		this.publisher = publisher;
+		this.schemaHash = schemaHash;
+	}
+
+	boolean isPublisher() {
+		return publisher;
+	}
+
+	void publish(ConfigData data, CommentedConfig config) {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		try (DataOutputStream output = new DataOutputStream(bytes)) {
+			for (Category category : data.categories) {
+				for (Property property : category.properties) {
+					RawValueCodec.write(output, config.get(property.getPath()));
+				}
+			}
+		} catch (IOException ex) {
+			throw new ConfigException("Failed to encode shared config values", ex);
+		}
+
+		final byte[] payload = bytes.toByteArray();
+		final CRC32 checksum = new CRC32();
+		checksum.update(payload);
+
+		ensureCapacity(HEADER_SIZE + payload.length);
+
+		buffer.putLong(SEQUENCE_OFFSET, ++sequence);
+		buffer.putInt(LENGTH_OFFSET, payload.length);
+		buffer.putLong(CHECKSUM_OFFSET, checksum.getValue());
+
+		buffer.position(HEADER_SIZE);
+		buffer.put(payload);
+
+		buffer.putLong(SEQUENCE_OFFSET, ++sequence);
+	}
+
+	//Copies the values in a payload returned by poll into the specified tree, which is passed
+	//in because data.config is null in low memory mode
+	void apply(ConfigData data, CommentedConfig config, byte[] payload) {
+		try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(payload))) {
+			for (Category category : data.categories) {
+				for (Property property : category.properties) {
+					final Object value = RawValueCodec.read(input);
+
+					if (value == null) {
+						config.remove(property.getPath());
+					} else {
+						config.set(property.getPath(), value);
+					}
+				}
+			}
+		} catch (IOException ex) {
+			throw new ConfigException("Failed to decode shared config values", ex);
+		}
+	}
+
+	//Returns the values published since the last poll, or null if there are none
+	byte[] poll() {
+		if (buffer == null && !mapForReading()) {
+			return null;
+		}
+
+		for (int attempt = 0; attempt < MAX_READ_ATTEMPTS; attempt++) {
+			final long start = buffer.getLong(SEQUENCE_OFFSET);
+
+			if (start == sequence) {
+				return null;
+			}
+
+			if ((start & 1) != 0) {
+				Thread.yield();
+				continue;
+			}
+
+			final int length = buffer.getInt(LENGTH_OFFSET);
+
+			if (length < 0 || HEADER_SIZE + (long) length > buffer.capacity()) {
+				if (!mapForReading()) {
+					return null;
+				}
+
+				continue;
+			}
+
+			final byte[] payload = new byte[length];
+			buffer.position(HEADER_SIZE);
+			buffer.get(payload);
+
+			final long expectedChecksum = buffer.getLong(CHECKSUM_OFFSET);
+
+			if (buffer.getLong(SEQUENCE_OFFSET) != start) {
+				continue;
+			}
+
+			final CRC32 checksum = new CRC32();
+			checksum.update(payload);
+
+			if (checksum.getValue() == expectedChecksum) {
+				sequence = start;
+				return payload;
+			}
+		}
+
+		//The publisher is busy; try again on the next poll
+		return null;
+	}
+
+	private boolean mapForReading() {
+		try {
+			if (!Files.exists(path) || Files.size(path) < HEADER_SIZE) {
+				return false;
+			}
+
+			if (channel == null) {
+				channel = FileChannel.open(path, StandardOpenOption.READ);
+			}
+
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		} catch (IOException ex) {
+			throw new ConfigException("Failed to map shared config region: " + path, ex);
+		}
+
+		if (buffer.getInt(MAGIC_OFFSET) != MAGIC) {
+			//The publisher has not initialized the region yet
+			buffer = null;
+			return false;
+		}
+
+		if (buffer.getInt(SCHEMA_OFFSET) != schemaHash) {
+			throw new ConfigException(
+					"Shared config region " + path + " was published by a different schema"
+			);
+		}
+
+		return true;
+	}
+
+	private void mapForWriting() {
+		try {
+			channel = FileChannel.open(
+					path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+					StandardOpenOption.WRITE
+			);
+			try {
+				lock = channel.tryLock();
+			} catch (OverlappingFileLockException ex) {
+				channel.close();
+				throw new ConfigException(
+						"Another configuration in this process is already publishing to " + path,
+						ex
+				);
+			}
+
+			if (lock == null) {
+				channel.close();
+				throw new ConfigException("Another process is already publishing to " + path);
+			}
+
+			final long size = Math.max(channel.size(), PAGE_SIZE);
+			buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+		} catch (IOException ex) {
+			throw new ConfigException("Failed to map shared config region: " + path, ex);
+		}
+
+		//Continue from the previous publisher's sequence so that followers do not mistake
+		//new values for ones they have already applied
+		if (buffer.getInt(MAGIC_OFFSET) == MAGIC) {
+			sequence = (buffer.getLong(SEQUENCE_OFFSET) + 1) & ~1L;
+		}
+
+		buffer.putLong(SEQUENCE_OFFSET, sequence);
+		buffer.putInt(SCHEMA_OFFSET, schemaHash);
+		buffer.putInt(MAGIC_OFFSET, MAGIC);
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity <= buffer.capacity()) {
+			return;
+		}
+
+		final long size = ((capacity * 2L + PAGE_SIZE - 1) / PAGE_SIZE) * PAGE_SIZE;
+
+		try {
+			buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+		} catch (IOException ex) {
+			throw new ConfigException("Failed to resize shared config region: " + path, ex);
+		}
+	}
+
+	static SharedRegion publisher(Path path, ConfigData data) {
+		final SharedRegion region = new SharedRegion(path, true, data.schemaHash);
+		region.mapForWriting();
+		return region;
+	}
+
+	static SharedRegion follower(Path path, ConfigData data) {
+		return new SharedRegion(path, false, data.schemaHash);
+	}
+}
@@ -0,0 +1,123 @@
+package com.therandomlabs.utils.config;
+
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import com.electronwill.nightconfig.core.file.CommentedFileConfig;
+
+//Stores values as human-readable strings that are parsed once when the configuration is
+//loaded, e.g. Durations or compiled Patterns.
+//Invalid strings, i.e. strings for which the parser throws an exception, are replaced with
+//the default value.
+public final class StringTypeAdapter implements TypeAdapter {
+	private final Class<?> valueClass;
+	private final Function<String, ?> parser;
+	private final Function<Object, String> formatter;
+	private final boolean isArray;
+
+	//For arrays, valueClass is the component type
+	public StringTypeAdapter(
+			Class<?> valueClass, Function<String, ?> parser, Function<Object, String> formatter,
+			boolean isArray
+	) {
+		this.valueClass = valueClass;
+		this.parser = parser;
+		this.formatter = formatter;
+		this.isArray = isArray;
+	}
+
+	@Override
+	public Object getValue(CommentedFileConfig config, List<String> path, Object defaultValue) {
+		final Object raw = config.get(path);
+
+		if (!isArray) {
+			return parse(raw);
+		}
+
+		if (!(raw instanceof List)) {
+			return null;
+		}
+
+		final List<?> list = (List<?>) raw;
+		final Object[] values = (Object[]) Array.newInstance(valueClass, list.size());
+		int size = 0;
+
+		for (Object element : list) {
+			final Object value = parse(element);
+
+			if (value != null) {
+				values[size++] = value;
+			}
+		}
+
+		return size == values.length ? values : Arrays.copyOf(values, size);
+	}
+
+	@Override
+	public void setValue(CommentedFileConfig config, List<String> path, Object value) {
+		if (isArray) {
+			config.set(
+					path,
+					Arrays.stream((Object[]) value).
+							map(this::asString).
+							collect(Collectors.toList())
+			);
+		} else {
+			config.set(path, asString(value));
+		}
+	}
+
+	@Override
+	public String asString(Object value) {
+		return formatter.apply(value);
+	}
+
+	@Override
+	public boolean isArray() {
+		return isArray;
+	}
+
+	@Override
+	public boolean isThreadSafe() {
+		return true;
+	}
+
+	//Returns null if the value is invalid
+	Object parse(Object value) {
+		if (value == null) {
+			return null;
+		}
+
+		try {
+			return parser.apply(value.toString());
+		} catch (RuntimeException ignored) {}
+
+		return null;
+	}
+
+	//Values such as Patterns do not implement equals, so they are compared by their string
+	//forms
+	boolean valueEquals(Object value1, Object value2) {
+		if (!isArray) {
+			return asString(value1).equals(asString(value2));
+		}
+
+		final Object[] array1 = (Object[]) value1;
+		final Object[] array2 = (Object[]) value2;
+
+		if (array1.length != array2.length) {
+			return false;
+		}
+
+		for (int i = 0; i < array1.length; i++) {
+			if (!asString(array1[i]).equals(asString(array2[i]))) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+}
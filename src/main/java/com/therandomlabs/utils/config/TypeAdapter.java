@@ -1,19 +1,33 @@
 package com.therandomlabs.utils.config;
 
 import java.util.Arrays;
+import java.util.List;
 
 import com.electronwill.nightconfig.core.file.CommentedFileConfig;
+import com.electronwill.nightconfig.core.utils.StringUtils;
 
+//Properties call the path-based getValue and setValue, which receive paths that have already
+//been split.
+//Adapters that only override the name-based overloads are still supported; properties call
+//those overloads instead (see TypeAdapters#getsByName).
 public interface TypeAdapter {
 	default Object getValue(CommentedFileConfig config, String name, Object defaultValue) {
-		return config.get(name);
+		return getValue(config, StringUtils.split(name, '.'), defaultValue);
+	}
+
+	default Object getValue(CommentedFileConfig config, List<String> path, Object defaultValue) {
+		return config.get(path);
 	}
 
 	default void setValue(CommentedFileConfig config, String name, Object value) {
+		setValue(config, StringUtils.split(name, '.'), value);
+	}
+
+	default void setValue(CommentedFileConfig config, List<String> path, Object value) {
 		if (isArray()) {
-			config.set(name, Arrays.asList(ArrayConverter.toBoxedArray(value)));
+			config.set(path, Arrays.asList(ArrayConverter.toBoxedArray(value)));
 		} else {
-			config.set(name, value);
+			config.set(path, value);
 		}
 	}
 
@@ -36,4 +50,10 @@ public interface TypeAdapter {
 	default Object reloadDefault(Object defaultValue) {
 		return defaultValue;
 	}
+
+	//If true, getValue may be called concurrently for different properties when a reload pool
+	//is set (see ConfigManager#setReloadPool)
+	default boolean isThreadSafe() {
+		return false;
+	}
 }
@@ -1,6 +1,8 @@
 package com.therandomlabs.utils.config;
 
 import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -8,6 +10,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
 import com.electronwill.nightconfig.core.file.CommentedFileConfig;
@@ -18,6 +21,20 @@ public final class TypeAdapters {
 	private static final Map<Class<?>, TypeAdapter> ADAPTERS = new HashMap<>();
 	private static final List<Consumer<Class<?>>> AUTO_REGISTRARS = new ArrayList<>();
 
+	private static final ClassValue<Boolean> GETS_BY_NAME = new ClassValue<Boolean>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			return overridesOnlyName(type, "getValue");
+		}
+	};
+
+	private static final ClassValue<Boolean> SETS_BY_NAME = new ClassValue<Boolean>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			return overridesOnlyName(type, "setValue");
+		}
+	};
+
 	static {
 		final Class[] defaultAdapterClasses = {
 				boolean.class,
@@ -138,6 +155,17 @@ public final class TypeAdapters {
 		});
 
 		register(String[].class, new TypeAdapter() {
+			@Override
+			public Object getValue(
+					CommentedFileConfig config, List<String> path, Object defaultValue
+			) {
+				//setValue stores arrays as lists
+				final Object value = config.get(path);
+				return value instanceof List ? ((List<?>) value).stream().
+						map(element -> Objects.toString(element, null)).
+						toArray(String[]::new) : value;
+			}
+
 			@Override
 			public String asString(Object value) {
 				return value instanceof Enum ? ((Enum) value).name() : String.valueOf(value);
@@ -151,6 +179,41 @@ public final class TypeAdapters {
 
 		register(Path.class, new PathTypeAdapter(false));
 		register(Path[].class, new PathTypeAdapter(true));
+
+		register(Duration.class, getStringAdapter(
+				Duration.class, DurationFormat::parse, DurationFormat::format, false
+		));
+		register(Duration[].class, getStringAdapter(
+				Duration.class, DurationFormat::parse, DurationFormat::format, true
+		));
+
+		register(ByteSize.class, getStringAdapter(
+				ByteSize.class, ByteSize::parse, ByteSize::toString, false
+		));
+		register(ByteSize[].class, getStringAdapter(
+				ByteSize.class, ByteSize::parse, ByteSize::toString, true
+		));
+
+		register(Pattern.class, getStringAdapter(
+				Pattern.class, Pattern::compile, Pattern::pattern, false
+		));
+		register(Pattern[].class, getStringAdapter(
+				Pattern.class, Pattern::compile, Pattern::pattern, true
+		));
+
+		//PathMatcher properties must have Glob default values (see Property), since only Globs
+		//can be written back as patterns
+		register(Glob.class, PathMatcher.class, getStringAdapter(
+				Glob.class, Glob::of, Glob::getPattern, false
+		));
+		register(Glob[].class, getStringAdapter(Glob.class, Glob::of, Glob::getPattern, true));
+		register(PathMatcher[].class, getStringAdapter(
+				PathMatcher.class, Glob::of, matcher -> ((Glob) matcher).getPattern(), true
+		));
+
+		register(MappedIntArray.class, new MappedFileTypeAdapter(MappedIntArray::new));
+		register(MappedLongArray.class, new MappedFileTypeAdapter(MappedLongArray::new));
+		register(MappedLines.class, new MappedFileTypeAdapter(MappedLines::new));
 	}
 
 	public static TypeAdapter get(Class<?> clazz) {
@@ -177,11 +240,44 @@ public final class TypeAdapters {
 		AUTO_REGISTRARS.add(autoRegistrar);
 	}
 
+	//Whether the adapter was written before the path-based getValue was added, i.e. it
+	//overrides getValue(CommentedFileConfig, String, Object) but not the path-based overload
+	static boolean getsByName(TypeAdapter adapter) {
+		return GETS_BY_NAME.get(adapter.getClass());
+	}
+
+	static boolean setsByName(TypeAdapter adapter) {
+		return SETS_BY_NAME.get(adapter.getClass());
+	}
+
+	private static boolean overridesOnlyName(Class<?> type, String name) {
+		try {
+			return type.getMethod(
+					name, CommentedFileConfig.class, String.class, Object.class
+			).getDeclaringClass() != TypeAdapter.class && type.getMethod(
+					name, CommentedFileConfig.class, List.class, Object.class
+			).getDeclaringClass() == TypeAdapter.class;
+		} catch (NoSuchMethodException ex) {
+			throw new ConfigException("Invalid type adapter: " + type.getName(), ex);
+		}
+	}
+
+	private static <T> TypeAdapter getStringAdapter(
+			Class<T> valueClass, Function<String, T> parser, Function<T, String> formatter,
+			boolean isArray
+	) {
+		return new StringTypeAdapter(
+				valueClass, parser, value -> formatter.apply((T) value), isArray
+		);
+	}
+
 	private static <T> TypeAdapter getArrayAdapter(Function<List<T>, Object> toArray) {
 		return new TypeAdapter() {
 			@Override
-			public Object getValue(CommentedFileConfig config, String name, Object defaultValue) {
-				return toArray.apply(config.get(name));
+			public Object getValue(
+					CommentedFileConfig config, List<String> path, Object defaultValue
+			) {
+				return toArray.apply(config.get(path));
 			}
 
 			@Override
@@ -194,9 +290,11 @@ public final class TypeAdapters {
 	private static <N extends Number> TypeAdapter getNumberAdapter(Function<String, N> parser) {
 		return new TypeAdapter() {
 			@Override
-			public Object getValue(CommentedFileConfig config, String name, Object defaultValue) {
+			public Object getValue(
+					CommentedFileConfig config, List<String> path, Object defaultValue
+			) {
 				try {
-					return parser.apply(config.get(name).toString());
+					return parser.apply(config.get(path).toString());
 				} catch (NumberFormatException ignored) {}
 
 				return null;
@@ -208,12 +306,32 @@ public final class TypeAdapters {
 			Class<N> numberClass, Function<Number, N> converter,
 			Function<Stream<N>, Object> toArray
 	) {
+		//Non-numeric integral elements are parsed as longs so that values beyond 2^53 are not
+		//rounded
+		final boolean integral = numberClass != Float.class && numberClass != Double.class;
+
 		return new TypeAdapter() {
 			@Override
-			public Object getValue(CommentedFileConfig config, String name, Object defaultValue) {
-				return toArray.apply((((List<Number>) config.get(name)).stream().map(number -> {
+			public Object getValue(
+					CommentedFileConfig config, List<String> path, Object defaultValue
+			) {
+				return toArray.apply((((List<Object>) config.get(path)).stream().map(element -> {
+					//Numeric elements are converted directly so that reloads do not allocate a
+					//string per element. Decimal elements of integral arrays are truncated.
+					if (element instanceof Number) {
+						return converter.apply((Number) element);
+					}
+
+					final String string = element.toString();
+
+					if (integral) {
+						try {
+							return converter.apply(Long.parseLong(string));
+						} catch (NumberFormatException ignored) {}
+					}
+
 					try {
-						return converter.apply(Double.parseDouble(number.toString()));
+						return converter.apply(Double.parseDouble(string));
 					} catch (NumberFormatException ignored) {}
 
 					return null;
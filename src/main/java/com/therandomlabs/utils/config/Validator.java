@@ -0,0 +1,11 @@
+package com.therandomlabs.utils.config;
+
+//Returns the validated value, or null if the value is blacklisted
+//Implementations are created once per property by Validators so that validation does not need
+//to determine the value type on every call
+interface Validator {
+	Object validate(Object value);
+
+	//Appends the valid range, if any, to a property comment
+	default void appendRange(StringBuilder comment) {}
+}
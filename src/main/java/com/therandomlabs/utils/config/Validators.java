@@ -0,0 +1,486 @@
+package com.therandomlabs.utils.config;
+
+import java.util.Arrays;
+import java.util.function.DoubleFunction;
+import java.util.function.LongFunction;
+import java.util.function.ToDoubleFunction;
+
+import org.apache.commons.lang3.ArrayUtils;
+
+final class Validators {
+	private Validators() {}
+
+	//clazz may be a primitive, a wrapper or an array of either
+	static Validator integral(Class<?> clazz, long min, long max, String[] blacklist) {
+		final Class<?> type = clazz.isArray() ? clazz.getComponentType() : clazz;
+		final IntegralValidator validator;
+
+		if (type == byte.class || type == Byte.class) {
+			validator = new IntegralValidator(min, max, blacklist, number -> (byte) number);
+		} else if (type == short.class || type == Short.class) {
+			validator = new IntegralValidator(min, max, blacklist, number -> (short) number);
+		} else if (type == int.class || type == Integer.class) {
+			validator = new IntegralValidator(min, max, blacklist, number -> (int) number);
+		} else {
+			validator = new IntegralValidator(min, max, blacklist, number -> number);
+		}
+
+		if (!clazz.isArray()) {
+			return validator;
+		}
+
+		if (type == byte.class) {
+			return byteArray(validator);
+		}
+
+		if (type == short.class) {
+			return shortArray(validator);
+		}
+
+		if (type == int.class) {
+			return intArray(validator);
+		}
+
+		if (type == long.class) {
+			return longArray(validator);
+		}
+
+		return new ObjectArrayValidator(validator);
+	}
+
+	//clazz may be a primitive, a wrapper or an array of either
+	static Validator floating(Class<?> clazz, double min, double max, String[] blacklist) {
+		final Class<?> type = clazz.isArray() ? clazz.getComponentType() : clazz;
+		final FloatingValidator validator;
+
+		if (type == float.class || type == Float.class) {
+			//Blacklisted floats are parsed as floats so that they compare equal to float values
+			//after widening
+			validator = new FloatingValidator(
+					min, max, blacklist, Float::parseFloat, number -> (float) number
+			);
+		} else {
+			validator = new FloatingValidator(
+					min, max, blacklist, Double::parseDouble, number -> number
+			);
+		}
+
+		if (!clazz.isArray()) {
+			return validator;
+		}
+
+		if (type == float.class) {
+			return floatArray(validator);
+		}
+
+		if (type == double.class) {
+			return doubleArray(validator);
+		}
+
+		return new ObjectArrayValidator(validator);
+	}
+
+	//For strings, enums and values handled by custom type adapters
+	static Validator object(Class<?> clazz, TypeAdapter adapter, String[] blacklist) {
+		final Validator validator = blacklist.length == 0 ?
+				value -> value :
+				value -> ArrayUtils.contains(blacklist, adapter.asString(value)) ? null : value;
+
+		if (!adapter.isArray()) {
+			return validator;
+		}
+
+		if (!clazz.isArray() || !clazz.getComponentType().isPrimitive()) {
+			return new ObjectArrayValidator(validator);
+		}
+
+		//boolean[] and char[]
+		if (blacklist.length == 0) {
+			return validator;
+		}
+
+		return value -> {
+			final Object[] validated = (Object[]) new ObjectArrayValidator(validator).validate(
+					ArrayConverter.toBoxedArray(value)
+			);
+			return ArrayConverter.toPrimitiveArray(validated);
+		};
+	}
+
+	//For values parsed from strings by a StringTypeAdapter, e.g. Durations and ByteSizes
+	//min and max may be null if there is no bound
+	static Validator comparable(
+			TypeAdapter adapter, Comparable<Object> min, Comparable<Object> max,
+			String[] blacklist
+	) {
+		final Validator validator = new ComparableValidator(adapter, min, max, blacklist);
+		return adapter.isArray() ? new ObjectArrayValidator(validator) : validator;
+	}
+
+	private static Validator byteArray(IntegralValidator validator) {
+		return value -> {
+			final byte[] array = (byte[]) value;
+			boolean valid = true;
+
+			for (byte element : array) {
+				if (!validator.isValid(element)) {
+					valid = false;
+					break;
+				}
+			}
+
+			if (valid) {
+				return array;
+			}
+
+			final byte[] validated = new byte[array.length];
+			int size = 0;
+
+			for (byte element : array) {
+				if (!validator.isBlacklisted(element)) {
+					validated[size++] = (byte) validator.clamp(element);
+				}
+			}
+
+			return Arrays.copyOf(validated, size);
+		};
+	}
+
+	private static Validator shortArray(IntegralValidator validator) {
+		return value -> {
+			final short[] array = (short[]) value;
+			boolean valid = true;
+
+			for (short element : array) {
+				if (!validator.isValid(element)) {
+					valid = false;
+					break;
+				}
+			}
+
+			if (valid) {
+				return array;
+			}
+
+			final short[] validated = new short[array.length];
+			int size = 0;
+
+			for (short element : array) {
+				if (!validator.isBlacklisted(element)) {
+					validated[size++] = (short) validator.clamp(element);
+				}
+			}
+
+			return Arrays.copyOf(validated, size);
+		};
+	}
+
+	private static Validator intArray(IntegralValidator validator) {
+		return value -> {
+			final int[] array = (int[]) value;
+			boolean valid = true;
+
+			for (int element : array) {
+				if (!validator.isValid(element)) {
+					valid = false;
+					break;
+				}
+			}
+
+			if (valid) {
+				return array;
+			}
+
+			final int[] validated = new int[array.length];
+			int size = 0;
+
+			for (int element : array) {
+				if (!validator.isBlacklisted(element)) {
+					validated[size++] = (int) validator.clamp(element);
+				}
+			}
+
+			return Arrays.copyOf(validated, size);
+		};
+	}
+
+	private static Validator longArray(IntegralValidator validator) {
+		return value -> {
+			final long[] array = (long[]) value;
+			boolean valid = true;
+
+			for (long element : array) {
+				if (!validator.isValid(element)) {
+					valid = false;
+					break;
+				}
+			}
+
+			if (valid) {
+				return array;
+			}
+
+			final long[] validated = new long[array.length];
+			int size = 0;
+
+			for (long element : array) {
+				if (!validator.isBlacklisted(element)) {
+					validated[size++] = validator.clamp(element);
+				}
+			}
+
+			return Arrays.copyOf(validated, size);
+		};
+	}
+
+	private static Validator floatArray(FloatingValidator validator) {
+		return value -> {
+			final float[] array = (float[]) value;
+			boolean valid = true;
+
+			for (float element : array) {
+				if (!validator.isValid(element)) {
+					valid = false;
+					break;
+				}
+			}
+
+			if (valid) {
+				return array;
+			}
+
+			final float[] validated = new float[array.length];
+			int size = 0;
+
+			for (float element : array) {
+				if (!validator.isBlacklisted(element)) {
+					validated[size++] = (float) validator.clamp(element);
+				}
+			}
+
+			return Arrays.copyOf(validated, size);
+		};
+	}
+
+	private static Validator doubleArray(FloatingValidator validator) {
+		return value -> {
+			final double[] array = (double[]) value;
+			boolean valid = true;
+
+			for (double element : array) {
+				if (!validator.isValid(element)) {
+					valid = false;
+					break;
+				}
+			}
+
+			if (valid) {
+				return array;
+			}
+
+			final double[] validated = new double[array.length];
+			int size = 0;
+
+			for (double element : array) {
+				if (!validator.isBlacklisted(element)) {
+					validated[size++] = validator.clamp(element);
+				}
+			}
+
+			return Arrays.copyOf(validated, size);
+		};
+	}
+
+	//Ranges and blacklists are checked as longs, which can represent every integral type exactly
+	private static final class IntegralValidator implements Validator {
+		private final long min;
+		private final long max;
+		private final long[] blacklist;
+		private final LongFunction<Object> box;
+
+		IntegralValidator(long min, long max, String[] blacklist, LongFunction<Object> box) {
+			this.min = min;
+			this.max = max;
+			this.box = box;
+
+			final long[] parsed = new long[blacklist.length];
+			int size = 0;
+
+			for (String element : blacklist) {
+				try {
+					parsed[size] = Long.parseLong(element.trim());
+					size++;
+				} catch (NumberFormatException ignored) {}
+			}
+
+			this.blacklist = Arrays.copyOf(parsed, size);
+		}
+
+		@Override
+		public Object validate(Object value) {
+			final long number = ((Number) value).longValue();
+
+			if (isBlacklisted(number)) {
+				return null;
+			}
+
+			return number < min || number > max ? box.apply(clamp(number)) : value;
+		}
+
+		boolean isBlacklisted(long number) {
+			return blacklist.length != 0 && ArrayUtils.contains(blacklist, number);
+		}
+
+		boolean isValid(long number) {
+			return number >= min && number <= max && !isBlacklisted(number);
+		}
+
+		long clamp(long number) {
+			return number < min ? min : Math.min(number, max);
+		}
+
+		@Override
+		public void appendRange(StringBuilder comment) {
+			comment.append("\n Min: ").append(min).append("\n Max: ").append(max);
+		}
+	}
+
+	private static final class FloatingValidator implements Validator {
+		private final double min;
+		private final double max;
+		private final double[] blacklist;
+		private final DoubleFunction<Object> box;
+
+		FloatingValidator(
+				double min, double max, String[] blacklist, ToDoubleFunction<String> parser,
+				DoubleFunction<Object> box
+		) {
+			this.min = min;
+			this.max = max;
+			this.box = box;
+
+			final double[] parsed = new double[blacklist.length];
+			int size = 0;
+
+			for (String element : blacklist) {
+				try {
+					parsed[size] = parser.applyAsDouble(element.trim());
+					size++;
+				} catch (NumberFormatException ignored) {}
+			}
+
+			this.blacklist = Arrays.copyOf(parsed, size);
+		}
+
+		@Override
+		public Object validate(Object value) {
+			final double number = ((Number) value).doubleValue();
+
+			if (isBlacklisted(number)) {
+				return null;
+			}
+
+			return number < min || number > max ? box.apply(clamp(number)) : value;
+		}
+
+		boolean isBlacklisted(double number) {
+			return blacklist.length != 0 && ArrayUtils.contains(blacklist, number);
+		}
+
+		boolean isValid(double number) {
+			return !(number < min) && !(number > max) && !isBlacklisted(number);
+		}
+
+		double clamp(double number) {
+			if (number < min) {
+				return min;
+			}
+
+			return number > max ? max : number;
+		}
+
+		@Override
+		public void appendRange(StringBuilder comment) {
+			comment.append("\n Min: ").append(min).append("\n Max: ").append(max);
+		}
+	}
+
+	//Ranges are checked in the values' native units, and blacklists by their string forms
+	private static final class ComparableValidator implements Validator {
+		private final TypeAdapter adapter;
+		private final Comparable<Object> min;
+		private final Comparable<Object> max;
+		private final String[] blacklist;
+
+		ComparableValidator(
+				TypeAdapter adapter, Comparable<Object> min, Comparable<Object> max,
+				String[] blacklist
+		) {
+			this.adapter = adapter;
+			this.min = min;
+			this.max = max;
+			this.blacklist = blacklist;
+		}
+
+		@Override
+		public Object validate(Object value) {
+			if (blacklist.length != 0 && ArrayUtils.contains(blacklist, adapter.asString(value))) {
+				return null;
+			}
+
+			if (min != null && min.compareTo(value) > 0) {
+				return min;
+			}
+
+			return max != null && max.compareTo(value) < 0 ? max : value;
+		}
+
+		@Override
+		public void appendRange(StringBuilder comment) {
+			if (min != null) {
+				comment.append("\n Min: ").append(adapter.asString(min));
+			}
+
+			if (max != null) {
+				comment.append("\n Max: ").append(adapter.asString(max));
+			}
+		}
+	}
+
+	//Removes null and blacklisted elements and only copies the array if anything changes
+	private static final class ObjectArrayValidator implements Validator {
+		private final Validator elementValidator;
+
+		ObjectArrayValidator(Validator elementValidator) {
+			this.elementValidator = elementValidator;
+		}
+
+		@Override
+		public Object validate(Object value) {
+			final Object[] array = (Object[]) value;
+			Object[] validated = null;
+			int size = 0;
+
+			for (int i = 0; i < array.length; i++) {
+				final Object element = array[i];
+				final Object validatedElement =
+						element == null ? null : elementValidator.validate(element);
+
+				if (validated == null) {
+					if (validatedElement == element && element != null) {
+						continue;
+					}
+
+					validated = Arrays.copyOf(array, array.length);
+					size = i;
+				}
+
+				if (validatedElement != null) {
+					validated[size++] = validatedElement;
+				}
+			}
+
+			return validated == null ? array : Arrays.copyOf(validated, size);
+		}
+	}
+}
@@ -0,0 +1,108 @@
+package com.therandomlabs.utils.config;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Properties;
+
+import com.sun.management.ThreadMXBean;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+//Steady-state reloads and writes of an unchanged configuration should not churn the heap.
+//Each test measures the bytes allocated by the current thread per call with ThreadMXBean and
+//fails if the allocation per property exceeds the budget in allocation-budgets.properties.
+//Budgets should only be raised deliberately, together with the change that requires it.
+public class AllocationTest {
+	private static final int CATEGORIES = 8;
+	private static final int PROPERTIES_PER_CATEGORY = 64;
+	private static final int WARMUP_ITERATIONS = 200;
+	private static final int ITERATIONS = 200;
+
+	private static ThreadMXBean threads;
+	private static Properties budgets;
+	private static SyntheticSchema schema;
+
+	@BeforeClass
+	public static void setUp() throws IOException, ReflectiveOperationException {
+		threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+		assumeTrue(threads.isThreadAllocatedMemorySupported());
+		threads.setThreadAllocatedMemoryEnabled(true);
+
+		budgets = new Properties();
+
+		try (InputStream input = AllocationTest.class.getResourceAsStream(
+				"/allocation-budgets.properties"
+		)) {
+			budgets.load(input);
+		}
+
+		schema = SyntheticSchema.generate(CATEGORIES, PROPERTIES_PER_CATEGORY);
+		schema.register();
+	}
+
+	@Test
+	public void reloadFromConfig() {
+		assertWithinBudget("reloadFromConfig", () -> ConfigManager.reloadFromConfig(schema.clazz));
+	}
+
+	@Test
+	public void writeToDisk() {
+		assertWithinBudget("writeToDisk", () -> ConfigManager.writeToDisk(schema.clazz));
+	}
+
+	@Test
+	public void reloadFromDisk() {
+		assertWithinBudget("reloadFromDisk", () -> ConfigManager.reloadFromDisk(schema.clazz));
+	}
+
+	@Test
+	public void getValue() {
+		final String[] names = new String[schema.getPropertyCount()];
+
+		for (int i = 0; i < CATEGORIES; i++) {
+			for (int j = 0; j < PROPERTIES_PER_CATEGORY; j++) {
+				names[i * PROPERTIES_PER_CATEGORY + j] = "category" + i + ".property" + j;
+			}
+		}
+
+		assertWithinBudget("getValue", () -> {
+			for (String name : names) {
+				ConfigManager.getValue(schema.clazz, name);
+			}
+		});
+	}
+
+	private static void assertWithinBudget(String operation, Runnable action) {
+		final long budget = Long.parseLong(budgets.getProperty(operation).trim());
+		final long bytesPerProperty = measure(action) / schema.getPropertyCount();
+		System.out.println(
+				"AllocationTest: " + operation + " allocates " + bytesPerProperty +
+						" bytes per property (budget: " + budget + ")"
+		);
+		assertTrue(
+				operation + " allocates " + bytesPerProperty +
+						" bytes per property, which exceeds the budget of " + budget,
+				bytesPerProperty <= budget
+		);
+	}
+
+	//Returns the average number of bytes allocated by the current thread per call
+	private static long measure(Runnable action) {
+		for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+			action.run();
+		}
+
+		final long thread = Thread.currentThread().getId();
+		final long before = threads.getThreadAllocatedBytes(thread);
+
+		for (int i = 0; i < ITERATIONS; i++) {
+			action.run();
+		}
+
+		return (threads.getThreadAllocatedBytes(thread) - before) / ITERATIONS;
+	}
+}
@@ -0,0 +1,124 @@
+package com.therandomlabs.utils.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class CompressionTest {
+	@Config(id = "gziptest", comment = "Gzip", compression = Config.Compression.GZIP)
+	public static final class Gzip {
+		public static final class Values {
+			@Config.Property("An int")
+			public static int anInt = 1;
+
+			@Config.Property("Ints")
+			public static int[] ints = {1, 2, 3};
+		}
+
+		@Config.Category("Values")
+		public static final Values values = null;
+	}
+
+	@Config(id = "deflatetest", comment = "Deflate", compression = Config.Compression.DEFLATE)
+	public static final class Deflate {
+		public static final class Values {
+			@Config.Property("An int")
+			public static int anInt = 1;
+
+			@Config.Property("Ints")
+			public static int[] ints = {1, 2, 3};
+		}
+
+		@Config.Category("Values")
+		public static final Values values = null;
+	}
+
+	private static final String CONTENTS = "[values]\n\tanInt = 5\n\tints = [4, 5]\n";
+
+	@BeforeClass
+	public static void setUp() throws IOException {
+		for (Class<?> clazz : new Class<?>[] {Gzip.class, Deflate.class}) {
+			ConfigManager.setDirectory(
+					clazz, Files.createTempDirectory("trlutils-config-compression")
+			);
+			ConfigManager.register(clazz);
+		}
+	}
+
+	@Test
+	public void gzipFilesAreReadAndWritten() throws IOException {
+		final Path path = ConfigManager.getPath(Gzip.class);
+		Files.write(path, compress(true));
+
+		ConfigManager.reloadFromDisk(Gzip.class, true);
+
+		assertEquals(5, Gzip.Values.anInt);
+		assertEquals(2, Gzip.Values.ints.length);
+		assertTrue(decompress(new GZIPInputStream(open(path))).contains("# Gzip"));
+	}
+
+	@Test
+	public void deflateFilesAreReadAndWritten() throws IOException {
+		final Path path = ConfigManager.getPath(Deflate.class);
+		Files.write(path, compress(false));
+
+		ConfigManager.reloadFromDisk(Deflate.class, true);
+
+		assertEquals(5, Deflate.Values.anInt);
+		assertEquals(2, Deflate.Values.ints.length);
+		assertTrue(decompress(new InflaterInputStream(open(path))).contains("# Deflate"));
+	}
+
+	@Test
+	public void plainFilesAreDetected() throws IOException {
+		final Path path = ConfigManager.getPath(Gzip.class);
+		Files.write(path, CONTENTS.replace('5', '6').getBytes(StandardCharsets.UTF_8));
+
+		ConfigManager.reloadFromDisk(Gzip.class, true);
+
+		assertEquals(6, Gzip.Values.anInt);
+		assertTrue(decompress(new GZIPInputStream(open(path))).contains("anInt = 6"));
+	}
+
+	private static InputStream open(Path path) throws IOException {
+		return new ByteArrayInputStream(Files.readAllBytes(path));
+	}
+
+	private static byte[] compress(boolean gzip) throws IOException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		try (OutputStream output = gzip ?
+				new GZIPOutputStream(bytes) : new DeflaterOutputStream(bytes)) {
+			output.write(CONTENTS.getBytes(StandardCharsets.UTF_8));
+		}
+
+		return bytes.toByteArray();
+	}
+
+	private static String decompress(InputStream input) throws IOException {
+		final ByteArrayOutputStream output = new ByteArrayOutputStream();
+		final byte[] buffer = new byte[8192];
+		int read;
+
+		while ((read = input.read(buffer)) != -1) {
+			output.write(buffer, 0, read);
+		}
+
+		return new String(output.toByteArray(), StandardCharsets.UTF_8);
+	}
+}
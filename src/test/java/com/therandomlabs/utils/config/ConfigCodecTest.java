@@ -0,0 +1,146 @@
+package com.therandomlabs.utils.config;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ConfigCodecTest {
+	@Config(id = "codectest", comment = "Encoded values")
+	public static final class Encoded {
+		public static final class Values {
+			@Config.Property("An int")
+			public static int anInt = 1;
+
+			@Config.Property("A long")
+			public static long aLong = 2L;
+
+			@Config.Property("A double")
+			public static double aDouble = 0.5;
+
+			@Config.Property("A boolean")
+			public static boolean aBoolean = true;
+
+			@Config.Property("A string")
+			public static String string = "value";
+
+			@Config.Property("Ints")
+			public static int[] ints = {1, 2, 3};
+
+			@Config.Property("Strings")
+			public static String[] strings = {"a", "b"};
+
+			@Config.Property("A time unit")
+			public static TimeUnit unit = TimeUnit.SECONDS;
+
+			@Config.Property("Time units")
+			public static TimeUnit[] units = {TimeUnit.SECONDS, TimeUnit.MINUTES};
+
+			//Encoded by RawValueCodec after being serialized by its type adapter
+			@Config.Property("A duration")
+			public static Duration duration = Duration.ofSeconds(5);
+		}
+
+		@Config.Category("Values")
+		public static final Values values = null;
+	}
+
+	@Config(id = "othercodectest", comment = "A different schema")
+	public static final class Other {
+		public static final class Values {
+			@Config.Property("An int")
+			public static int anInt = 1;
+		}
+
+		@Config.Category("Values")
+		public static final Values values = null;
+	}
+
+	@BeforeClass
+	public static void setUp() throws IOException {
+		for (Class<?> clazz : new Class<?>[] {Encoded.class, Other.class}) {
+			ConfigManager.setDirectory(clazz, Files.createTempDirectory("trlutils-config-codec"));
+			ConfigManager.register(clazz);
+		}
+	}
+
+	@Before
+	public void reset() {
+		setValues(1, 2L, 0.5, true, "value", TimeUnit.SECONDS, Duration.ofSeconds(5));
+		Encoded.Values.ints = new int[] {1, 2, 3};
+		Encoded.Values.strings = new String[] {"a", "b"};
+		Encoded.Values.units = new TimeUnit[] {TimeUnit.SECONDS, TimeUnit.MINUTES};
+		ConfigManager.writeToDisk(Encoded.class);
+	}
+
+	@Test
+	public void valuesRoundTrip() {
+		setValues(7, 8L, 0.25, false, "encoded", TimeUnit.HOURS, Duration.ofMinutes(3));
+		Encoded.Values.ints = new int[] {4, 5};
+		Encoded.Values.strings = new String[] {"c"};
+		Encoded.Values.units = new TimeUnit[] {TimeUnit.DAYS};
+
+		final byte[] blob = ConfigManager.encode(Encoded.class);
+		reset();
+		ConfigManager.decode(Encoded.class, blob);
+
+		assertEquals(7, Encoded.Values.anInt);
+		assertEquals(8L, Encoded.Values.aLong);
+		assertEquals(0.25, Encoded.Values.aDouble, 0.0);
+		assertEquals(false, Encoded.Values.aBoolean);
+		assertEquals("encoded", Encoded.Values.string);
+		assertArrayEquals(new int[] {4, 5}, Encoded.Values.ints);
+		assertArrayEquals(new String[] {"c"}, Encoded.Values.strings);
+		assertEquals(TimeUnit.HOURS, Encoded.Values.unit);
+		assertArrayEquals(new TimeUnit[] {TimeUnit.DAYS}, Encoded.Values.units);
+		assertEquals(Duration.ofMinutes(3), Encoded.Values.duration);
+		assertEquals(
+				Duration.ofMinutes(3), ConfigManager.getValue(Encoded.class, "values.duration")
+		);
+	}
+
+	@Test
+	public void deltasOnlyContainChangedValues() {
+		final long epoch = ConfigManager.getEpoch(Encoded.class);
+		ConfigManager.set(Encoded.class, "values.anInt", 5);
+		Encoded.Values.duration = Duration.ofHours(1);
+
+		final byte[] delta = ConfigManager.encodeDelta(Encoded.class, epoch);
+		final long encodedEpoch = ConfigManager.getEpoch(Encoded.class);
+
+		ConfigManager.set(Encoded.class, "values.anInt", 1);
+		ConfigManager.set(Encoded.class, "values.duration", Duration.ofSeconds(5));
+		ConfigManager.set(Encoded.class, "values.aLong", 9L);
+
+		assertEquals(encodedEpoch, ConfigManager.decode(Encoded.class, delta));
+		assertEquals(5, Encoded.Values.anInt);
+		assertEquals(Duration.ofHours(1), Encoded.Values.duration);
+		//Not part of the delta
+		assertEquals(9L, Encoded.Values.aLong);
+	}
+
+	@Test(expected = ConfigException.class)
+	public void blobsOfOtherSchemasAreRejected() {
+		ConfigManager.decode(Other.class, ConfigManager.encode(Encoded.class));
+	}
+
+	private static void setValues(
+			int anInt, long aLong, double aDouble, boolean aBoolean, String string, TimeUnit unit,
+			Duration duration
+	) {
+		Encoded.Values.anInt = anInt;
+		Encoded.Values.aLong = aLong;
+		Encoded.Values.aDouble = aDouble;
+		Encoded.Values.aBoolean = aBoolean;
+		Encoded.Values.string = string;
+		Encoded.Values.unit = unit;
+		Encoded.Values.duration = duration;
+	}
+}
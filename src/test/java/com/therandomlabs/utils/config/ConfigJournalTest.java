@@ -0,0 +1,128 @@
+package com.therandomlabs.utils.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.electronwill.nightconfig.core.CommentedConfig;
+import com.electronwill.nightconfig.toml.TomlFormat;
+import org.junit.Test;
+
+public class ConfigJournalTest {
+	@Config(id = "journaltest", comment = "Journaled values")
+	public static final class Journaled {
+		public static final class Values {
+			@Config.Property("An int")
+			public static int anInt = 1;
+		}
+
+		@Config.Category("Values")
+		public static final Values values = null;
+	}
+
+	@Test
+	public void recordsAreReplayedInOrder() throws IOException {
+		final ConfigJournal journal = new ConfigJournal(createPath());
+		assertTrue(journal.isEmpty());
+
+		journal.append(changes("values.anInt", 1, "values.string", "a"));
+		journal.append(changes("values.anInt", 2, "values.list", Arrays.asList(1L, 2L)));
+		assertFalse(journal.isEmpty());
+
+		final CommentedConfig config = TomlFormat.newConfig();
+		config.set("values.removed", true);
+		journal.append(changes("values.removed", null));
+		journal.replay(config);
+
+		assertEquals(2, (int) config.get("values.anInt"));
+		assertEquals("a", config.get("values.string"));
+		assertEquals(Arrays.asList(1L, 2L), config.get("values.list"));
+		assertNull(config.get("values.removed"));
+	}
+
+	@Test
+	public void incompleteRecordsAreIgnored() throws IOException {
+		final Path path = createPath();
+		final ConfigJournal journal = new ConfigJournal(path);
+		journal.append(changes("values.anInt", 1));
+		journal.append(changes("values.string", "truncated"));
+
+		final byte[] bytes = Files.readAllBytes(path);
+		Files.write(path, Arrays.copyOf(bytes, bytes.length - 1));
+
+		final CommentedConfig config = TomlFormat.newConfig();
+		new ConfigJournal(path).replay(config);
+
+		assertEquals(1, (int) config.get("values.anInt"));
+		assertNull(config.get("values.string"));
+	}
+
+	@Test
+	public void journalsOfPreviousProcessesAreCompacted() throws IOException {
+		final Path path = createPath();
+		new ConfigJournal(path).append(changes("values.anInt", 1));
+
+		final ConfigJournal journal = new ConfigJournal(path);
+		assertTrue(journal.shouldCompact(1, Long.MAX_VALUE));
+		assertTrue(journal.shouldCompact(Long.MAX_VALUE, 0));
+		assertFalse(journal.shouldCompact(Long.MAX_VALUE, Long.MAX_VALUE));
+
+		journal.delete();
+		assertTrue(journal.isEmpty());
+		assertFalse(journal.shouldCompact(1, 0));
+		assertFalse(Files.exists(path));
+	}
+
+	@Test
+	public void compactionRewritesTheConfigurationFile() throws IOException {
+		ConfigManager.setDirectory(
+				Journaled.class, Files.createTempDirectory("trlutils-config-journal")
+		);
+		ConfigManager.register(Journaled.class);
+
+		final Path file = ConfigManager.getPath(Journaled.class);
+		final Path journal = file.resolveSibling(file.getFileName() + ".journal");
+
+		ConfigManager.set(Journaled.class, "values.anInt", 5);
+		assertTrue(Files.exists(journal));
+		assertFalse(read(file).contains("anInt = 5"));
+
+		ConfigManager.setJournalCompactionThresholds(1, Long.MAX_VALUE);
+
+		try {
+			ConfigManager.compactJournals();
+		} finally {
+			ConfigManager.setJournalCompactionThresholds(64 * 1024, 5 * 60 * 1000);
+		}
+
+		assertFalse(Files.exists(journal));
+		assertTrue(read(file).contains("anInt = 5"));
+	}
+
+	private static Path createPath() throws IOException {
+		return Files.createTempDirectory("trlutils-config-journal").resolve("test.journal");
+	}
+
+	private static Map<String, Object> changes(Object... namesAndValues) {
+		final Map<String, Object> changes = new LinkedHashMap<>();
+
+		for (int i = 0; i < namesAndValues.length; i += 2) {
+			changes.put((String) namesAndValues[i], namesAndValues[i + 1]);
+		}
+
+		return changes;
+	}
+
+	private static String read(Path path) throws IOException {
+		return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,188 @@
+package com.therandomlabs.utils.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import com.electronwill.nightconfig.core.file.CommentedFileConfig;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class DelayedLoadTest {
+	//Stands in for registry entries, which cannot be loaded until the registries are ready
+	public static final class Entry {
+		final String name;
+
+		Entry(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			return object instanceof Entry && name.equals(((Entry) object).name);
+		}
+
+		@Override
+		public int hashCode() {
+			return name.hashCode();
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+
+	@Config(id = "delayedcommenttest", comment = "Delayed loading")
+	public static final class Commented {
+		public static final class Values {
+			@Config.Property("An entry")
+			public static Entry entry = new Entry("default");
+		}
+
+		@Config.Category("Values")
+		public static final Values values = null;
+	}
+
+	@Config(id = "delayeddecodetest", comment = "Delayed loading")
+	public static final class Decoded {
+		public static final class Values {
+			@Config.Property("An entry")
+			public static Entry entry = new Entry("default");
+		}
+
+		@Config.Category("Values")
+		public static final Values values = null;
+	}
+
+	@Config(id = "delayedreloadtest", comment = "Delayed loading")
+	public static final class Reloaded {
+		public static final class Values {
+			@Config.Property("An entry")
+			public static Entry entry = new Entry("default");
+		}
+
+		@Config.Category("Values")
+		public static final Values values = null;
+	}
+
+	@Config(id = "delayedresolvetest", comment = "Delayed loading")
+	public static final class Resolved {
+		public static final class Values {
+			@Config.Property("An entry")
+			public static Entry entry = new Entry("default");
+		}
+
+		@Config.Category("Values")
+		public static final Values values = null;
+	}
+
+	private static boolean ready;
+
+	@BeforeClass
+	public static void setUp() {
+		TypeAdapters.register(Entry.class, new TypeAdapter() {
+			@Override
+			public Object getValue(
+					CommentedFileConfig config, List<String> path, Object defaultValue
+			) {
+				return new Entry(config.get(path));
+			}
+
+			@Override
+			public void setValue(CommentedFileConfig config, List<String> path, Object value) {
+				config.set(path, ((Entry) value).name);
+			}
+
+			@Override
+			public boolean shouldLoad() {
+				return ready;
+			}
+
+			@Override
+			public Object reloadDefault(Object defaultValue) {
+				return ready ? new Entry("replaced") : defaultValue;
+			}
+		});
+	}
+
+	@After
+	public void reset() {
+		ready = false;
+	}
+
+	@Test
+	public void reloadsRetryDelayedProperties() throws IOException {
+		register(Reloaded.class, "delayedreloadtest");
+		assertEquals(new Entry("default"), Reloaded.Values.entry);
+
+		ready = true;
+		ConfigManager.reloadFromDisk(Reloaded.class);
+		assertEquals(new Entry("custom"), Reloaded.Values.entry);
+	}
+
+	@Test
+	public void commentsShowReloadedDefaults() throws IOException {
+		register(Commented.class, "delayedcommenttest");
+		assertTrue(read(Commented.class).contains("Default: default"));
+
+		ready = true;
+		ConfigManager.reloadFromDisk(Commented.class);
+		assertTrue(read(Commented.class).contains("Default: replaced"));
+	}
+
+	@Test
+	public void decodedValuesAreDelayed() throws IOException {
+		ready = true;
+		register(Decoded.class, "delayeddecodetest");
+		ConfigManager.set(Decoded.class, "values.entry", new Entry("encoded"));
+		final byte[] blob = ConfigManager.encode(Decoded.class);
+		ConfigManager.set(Decoded.class, "values.entry", new Entry("custom"));
+
+		ready = false;
+		ConfigManager.decode(Decoded.class, blob);
+		assertEquals(new Entry("custom"), Decoded.Values.entry);
+
+		ready = true;
+		ConfigManager.resolveDelayed();
+		assertEquals(new Entry("encoded"), Decoded.Values.entry);
+	}
+
+	@Test
+	public void unresolvedPropertiesAreReturned() throws IOException {
+		register(Resolved.class, "delayedresolvetest");
+
+		assertEquals(
+				Collections.singletonList("values.entry"),
+				ConfigManager.resolveDelayed().get(Resolved.class)
+		);
+		assertEquals(new Entry("default"), Resolved.Values.entry);
+
+		ready = true;
+		assertFalse(ConfigManager.resolveDelayed().containsKey(Resolved.class));
+		assertEquals(new Entry("custom"), Resolved.Values.entry);
+	}
+
+	private static String read(Class<?> clazz) throws IOException {
+		return new String(Files.readAllBytes(ConfigManager.getPath(clazz)), StandardCharsets.UTF_8);
+	}
+
+	//Registers the configuration with a file in which the entry is not the default value
+	private static void register(Class<?> clazz, String id) throws IOException {
+		final Path directory = Files.createTempDirectory("trlutils-config-" + id);
+		Files.write(
+				directory.resolve(id + ".toml"),
+				"[values]\n\tentry = \"custom\"\n".getBytes(StandardCharsets.UTF_8)
+		);
+		ConfigManager.setDirectory(clazz, directory);
+		ConfigManager.register(clazz);
+	}
+}
@@ -0,0 +1,89 @@
+package com.therandomlabs.utils.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.regex.Pattern;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class DerivedTest {
+	@Config(id = "derivedtest", comment = "Derived values")
+	public static final class Patterns {
+		public static final class Values {
+			@Config.Property("A regular expression")
+			public static String regex = "a+";
+
+			@Config.Property("An int")
+			public static int anInt = 1;
+
+			//Derived values are registered after the configuration, which is reloaded when it
+			//is registered
+			public static void onReload() {
+				matchedOnReload = pattern != null && pattern.get().matcher("bb").matches();
+			}
+		}
+
+		@Config.Category("Values")
+		public static final Values values = null;
+	}
+
+	private static Derived<Pattern> pattern;
+	private static int computations;
+	private static boolean matchedOnReload;
+
+	@BeforeClass
+	public static void setUp() throws IOException {
+		ConfigManager.setDirectory(
+				Patterns.class, Files.createTempDirectory("trlutils-config-derived")
+		);
+		ConfigManager.register(Patterns.class);
+		pattern = ConfigManager.derive(Patterns.class, () -> {
+			computations++;
+			return Pattern.compile(Patterns.Values.regex);
+		}, "values.regex");
+	}
+
+	@Before
+	public void reset() {
+		ConfigManager.set(Patterns.class, "values.regex", "a+");
+		ConfigManager.set(Patterns.class, "values.anInt", 1);
+		computations = 0;
+	}
+
+	@Test
+	public void reloadsRecomputeDerivedValuesBeforeCallbacks() throws IOException {
+		Files.write(
+				ConfigManager.getPath(Patterns.class),
+				"[values]\n\tregex = \"b+\"\n".getBytes(StandardCharsets.UTF_8)
+		);
+
+		ConfigManager.reloadFromDisk(Patterns.class, true);
+
+		assertEquals("b+", pattern.get().pattern());
+		assertEquals(1, computations);
+		assertTrue(matchedOnReload);
+	}
+
+	@Test
+	public void setRecomputesDerivedValues() {
+		ConfigManager.set(Patterns.class, "values.regex", "c+");
+
+		assertEquals("c+", pattern.get().pattern());
+		assertEquals(1, computations);
+	}
+
+	@Test
+	public void changesToOtherPropertiesDoNotRecomputeDerivedValues() {
+		ConfigManager.set(Patterns.class, "values.anInt", 2);
+		ConfigManager.reloadFromDisk(Patterns.class, true);
+
+		assertEquals("a+", pattern.get().pattern());
+		assertEquals(0, computations);
+	}
+}
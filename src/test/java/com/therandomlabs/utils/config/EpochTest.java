@@ -0,0 +1,98 @@
+package com.therandomlabs.utils.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class EpochTest {
+	@Config(id = "epochtest", comment = "Epochs")
+	public static final class Versioned {
+		public static final class Values {
+			@Config.Property("An int")
+			public static int anInt = 1;
+
+			@Config.Property("Strings")
+			public static String[] strings = {"a", "b"};
+		}
+
+		@Config.Category("Values")
+		public static final Values values = null;
+	}
+
+	@BeforeClass
+	public static void setUp() throws IOException {
+		ConfigManager.setDirectory(
+				Versioned.class, Files.createTempDirectory("trlutils-config-epoch")
+		);
+		ConfigManager.register(Versioned.class);
+	}
+
+	@Before
+	public void reset() {
+		Versioned.Values.anInt = 1;
+		Versioned.Values.strings = new String[] {"a", "b"};
+		ConfigManager.writeToDisk(Versioned.class);
+	}
+
+	@Test
+	public void unchangedValuesDoNotAdvanceTheEpoch() {
+		final long epoch = ConfigManager.getEpoch(Versioned.class);
+
+		ConfigManager.reloadFromDisk(Versioned.class, true);
+		ConfigManager.writeToDisk(Versioned.class);
+		ConfigManager.set(Versioned.class, "values.anInt", 1);
+		//Equal arrays are unchanged even if they are different instances
+		Versioned.Values.strings = new String[] {"a", "b"};
+		ConfigManager.writeToDisk(Versioned.class);
+
+		assertEquals(epoch, ConfigManager.getEpoch(Versioned.class));
+	}
+
+	@Test
+	public void setAdvancesTheEpoch() {
+		final long epoch = ConfigManager.getEpoch(Versioned.class);
+		final long globalEpoch = ConfigManager.getGlobalEpoch();
+
+		ConfigManager.set(Versioned.class, "values.anInt", 2);
+
+		assertTrue(ConfigManager.getEpoch(Versioned.class) > epoch);
+		assertTrue(ConfigManager.getGlobalEpoch() > globalEpoch);
+	}
+
+	@Test
+	public void directChangesAdvanceTheEpochOnce() {
+		final long epoch = ConfigManager.getEpoch(Versioned.class);
+
+		Versioned.Values.strings = new String[] {"c"};
+		ConfigManager.writeToDisk(Versioned.class);
+		final long changedEpoch = ConfigManager.getEpoch(Versioned.class);
+		assertTrue(changedEpoch > epoch);
+
+		ConfigManager.writeToDisk(Versioned.class);
+		assertEquals(changedEpoch, ConfigManager.getEpoch(Versioned.class));
+	}
+
+	@Test
+	public void reloadsOfChangedFilesAdvanceTheEpoch() throws IOException {
+		final long epoch = ConfigManager.getEpoch(Versioned.class);
+		final String contents = new String(
+				Files.readAllBytes(ConfigManager.getPath(Versioned.class)), StandardCharsets.UTF_8
+		);
+		Files.write(
+				ConfigManager.getPath(Versioned.class),
+				contents.replace("anInt = 1", "anInt = 3").getBytes(StandardCharsets.UTF_8)
+		);
+
+		ConfigManager.reloadFromDisk(Versioned.class, true);
+
+		assertEquals(3, Versioned.Values.anInt);
+		assertTrue(ConfigManager.getEpoch(Versioned.class) > epoch);
+	}
+}
@@ -0,0 +1,87 @@
+package com.therandomlabs.utils.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+//Stores a configuration in a zip file system, which stands in for e.g. an in-memory file
+//system since none is available to the tests
+public class FileSystemTest {
+	@Config(id = "filesystemtest", comment = "Another file system")
+	public static final class Zipped {
+		public static final class Values {
+			@Config.Property("An int")
+			public static int anInt = 1;
+
+			@Config.Property("Strings")
+			public static String[] strings = {"a", "b"};
+		}
+
+		@Config.Category("Values")
+		public static final Values values = null;
+	}
+
+	private static FileSystem fileSystem;
+
+	@BeforeClass
+	public static void setUp() throws IOException {
+		final Path zip = Files.createTempDirectory("trlutils-config-filesystem").
+				resolve("configs.zip");
+		fileSystem = FileSystems.newFileSystem(
+				URI.create("jar:" + zip.toUri()), Collections.singletonMap("create", "true")
+		);
+		ConfigManager.setDirectory(Zipped.class, fileSystem.getPath("/config"));
+		ConfigManager.register(Zipped.class);
+	}
+
+	@AfterClass
+	public static void tearDown() throws IOException {
+		fileSystem.close();
+	}
+
+	@Test
+	public void configurationsAreStoredOnTheFileSystem() throws IOException {
+		final Path path = ConfigManager.getPath(Zipped.class);
+		assertEquals(fileSystem, path.getFileSystem());
+
+		Zipped.Values.strings = new String[] {"c"};
+		ConfigManager.writeToDisk(Zipped.class);
+
+		final String contents = new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+		assertTrue(contents.contains("# Another file system"));
+		assertTrue(contents.contains("strings = [\"c\"]"));
+	}
+
+	@Test
+	public void configurationsAreReloadedFromTheFileSystem() throws IOException {
+		final Path path = ConfigManager.getPath(Zipped.class);
+		Files.write(path, "[values]\n\tanInt = 4\n".getBytes(StandardCharsets.UTF_8));
+
+		ConfigManager.reloadFromDisk(Zipped.class, true);
+
+		assertEquals(4, Zipped.Values.anInt);
+	}
+
+	@Test
+	public void journalsAreStoredOnTheFileSystem() {
+		Zipped.Values.anInt = 7;
+		ConfigManager.writeToJournal(Zipped.class);
+		Zipped.Values.anInt = 1;
+
+		ConfigManager.reloadFromDisk(Zipped.class, true);
+
+		assertEquals(7, Zipped.Values.anInt);
+	}
+}
@@ -0,0 +1,109 @@
+package com.therandomlabs.utils.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class FootprintTest {
+	@Config(id = "footprinttest", comment = "Footprints")
+	public static final class Measured {
+		public static final class Small {
+			@Config.Property("An int")
+			public static int anInt = 1;
+
+			@Config.Property("A string")
+			public static String string = "value";
+		}
+
+		public static final class Large {
+			@Config.Property("Longs")
+			public static long[] longs = {1L};
+
+			@Config.Property("Strings")
+			public static String[] strings = {"a"};
+		}
+
+		@Config.Category("Small")
+		public static final Small small = null;
+
+		@Config.Category("Large")
+		public static final Large large = null;
+	}
+
+	@BeforeClass
+	public static void setUp() throws IOException {
+		ConfigManager.setDirectory(
+				Measured.class, Files.createTempDirectory("trlutils-config-footprint")
+		);
+		ConfigManager.register(Measured.class);
+	}
+
+	@Before
+	public void reset() {
+		Measured.Large.longs = new long[1024];
+		ConfigManager.writeToDisk(Measured.class);
+	}
+
+	@Test
+	public void totalsAreTheSumOfTheCategories() {
+		final ConfigFootprint footprint = ConfigManager.footprint(Measured.class);
+		final ConfigFootprint.Usage total = footprint.getTotal();
+		long schemaBytes = 0;
+		long valueBytes = 0;
+
+		assertEquals(2, footprint.getCategories().size());
+
+		for (ConfigFootprint.Usage category : footprint.getCategories()) {
+			schemaBytes += category.getSchemaBytes();
+			valueBytes += category.getValueBytes();
+		}
+
+		assertEquals(valueBytes, total.getValueBytes());
+		//The total also includes the schema of the configuration itself
+		assertTrue(total.getSchemaBytes() > schemaBytes);
+		assertTrue(total.getTreeBytes() > 0);
+		assertEquals(
+				total.getTreeBytes() + total.getSchemaBytes() + total.getValueBytes(),
+				total.getTotalBytes()
+		);
+	}
+
+	@Test
+	public void largestPropertiesAreListedFirst() {
+		final List<ConfigFootprint.Usage> properties =
+				ConfigManager.footprint(Measured.class).getLargestProperties();
+
+		assertEquals("large.longs", properties.get(0).getName());
+		//The array is counted once for the field and once for its snapshot
+		assertTrue(properties.get(0).getValueBytes() >= 2 * 1024 * Long.BYTES);
+
+		for (int i = 1; i < properties.size(); i++) {
+			assertTrue(
+					properties.get(i - 1).getTotalBytes() >= properties.get(i).getTotalBytes()
+			);
+		}
+	}
+
+	@Test
+	public void defaultValuesAreNotCountedAsValues() {
+		final ConfigFootprint.Usage string = ConfigManager.footprint(Measured.class).
+				getLargestProperties().stream().filter(
+						property -> property.getName().equals("small.string")
+				).findFirst().orElseThrow(AssertionError::new);
+		assertEquals(0, string.getValueBytes());
+	}
+
+	@Test
+	public void everyConfigurationIsListed() {
+		assertTrue(ConfigManager.footprint().stream().anyMatch(
+				footprint -> footprint.getConfigClass() == Measured.class
+		));
+	}
+}
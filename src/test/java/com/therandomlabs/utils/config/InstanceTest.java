@@ -0,0 +1,138 @@
+package com.therandomlabs.utils.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class InstanceTest {
+	private static final int THREADS = 8;
+	private static final int ITERATIONS = 500;
+
+	@Config(id = "instancetest", comment = "Instances and overlays")
+	public static final class Instanced {
+		public static final class Values {
+			@Config.Property("An int")
+			public static int anInt = 1;
+
+			@Config.Property("A long")
+			public static long aLong = 2L;
+
+			@Config.Property("A string")
+			public static String string = "base";
+		}
+
+		@Config.Category("Values")
+		public static final Values values = null;
+	}
+
+	@BeforeClass
+	public static void setUp() throws IOException {
+		final Path directory = Files.createTempDirectory("trlutils-config-instances");
+		ConfigManager.setDirectory(Instanced.class, directory);
+		ConfigManager.register(Instanced.class);
+		ConfigManager.enableInstances(Instanced.class, directory.resolve("instances"), 2);
+		ConfigManager.enableOverlays(Instanced.class, directory.resolve("overlays"));
+	}
+
+	@Test
+	public void instancesAreSavedAndLoaded() {
+		final ConfigInstance instance = ConfigManager.getInstance(Instanced.class, "saved");
+		assertEquals(1, instance.getInt("values.anInt"));
+
+		instance.set("values.anInt", 5);
+		instance.set("values.string", "instance");
+		ConfigManager.writeInstances(Instanced.class);
+
+		//Evicts the instance
+		ConfigManager.getInstance(Instanced.class, "other1");
+		ConfigManager.getInstance(Instanced.class, "other2");
+
+		final ConfigInstance loaded = ConfigManager.getInstance(Instanced.class, "saved");
+		assertEquals(5, loaded.getInt("values.anInt"));
+		assertEquals(5L, loaded.getLong("values.anInt"));
+		assertEquals("instance", loaded.get("values.string"));
+		assertEquals(1, Instanced.Values.anInt);
+	}
+
+	@Test
+	public void overlaysOnlyStoreOverrides() {
+		final ConfigOverlay overlay = ConfigManager.getOverlay(Instanced.class, "overlay");
+		overlay.set("values.aLong", 7);
+
+		assertTrue(overlay.isOverridden("values.aLong"));
+		assertFalse(overlay.isOverridden("values.anInt"));
+		assertEquals(7L, overlay.getLong("values.aLong"));
+		assertEquals(1, overlay.getInt("values.anInt"));
+
+		overlay.reset("values.aLong");
+		assertEquals(2L, overlay.getLong("values.aLong"));
+	}
+
+	@Test
+	public void typedGettersThrowConfigExceptions() {
+		final ConfigInstance instance = ConfigManager.getInstance(Instanced.class, "typed");
+		final ConfigOverlay overlay = ConfigManager.getOverlay(Instanced.class, "typed");
+
+		assertThrowsConfigException(() -> instance.getInt("values.aLong"));
+		assertThrowsConfigException(() -> instance.getBoolean("values.string"));
+		assertThrowsConfigException(() -> overlay.getDouble("values.string"));
+		assertThrowsConfigException(() -> overlay.getInt("values.missing"));
+	}
+
+	@Test
+	public void instancesAndOverlaysMayBeUsedConcurrently() throws InterruptedException {
+		final Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+		final Thread[] threads = new Thread[THREADS];
+
+		for (int i = 0; i < THREADS; i++) {
+			final int thread = i;
+			threads[i] = new Thread(() -> {
+				try {
+					for (int j = 0; j < ITERATIONS; j++) {
+						//More instances than can be loaded at once, so they are evicted
+						final ConfigInstance instance = ConfigManager.getInstance(
+								Instanced.class, "concurrent" + (j % 5)
+						);
+						instance.set("values.anInt", thread);
+						instance.getInt("values.anInt");
+
+						final ConfigOverlay overlay = ConfigManager.getOverlay(
+								Instanced.class, "concurrent" + (j % 3)
+						);
+						overlay.set("values.aLong", j);
+						overlay.getLong("values.aLong");
+						overlay.reset("values.aLong");
+					}
+				} catch (Throwable throwable) {
+					failures.add(throwable);
+				}
+			});
+			threads[i].start();
+		}
+
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertTrue(failures.size() + " thread(s) failed: " + failures.peek(), failures.isEmpty());
+		ConfigManager.writeInstances(Instanced.class);
+		ConfigManager.writeOverlays(Instanced.class);
+	}
+
+	private static void assertThrowsConfigException(Runnable getter) {
+		try {
+			getter.run();
+			fail("Expected a ConfigException");
+		} catch (ConfigException ignored) {}
+	}
+}
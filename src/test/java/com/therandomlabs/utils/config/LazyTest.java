@@ -0,0 +1,165 @@
+package com.therandomlabs.utils.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.electronwill.nightconfig.core.file.CommentedFileConfig;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class LazyTest {
+	public static final class Expensive {
+		final String name;
+
+		Expensive(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+
+	@Config(id = "lazytest", comment = "Lazy values")
+	public static final class Deferred {
+		public static final class Values {
+			@Config.Property("An expensive value")
+			public static Lazy<Expensive> expensive = Lazy.of(new Expensive("default"));
+		}
+
+		@Config.Category("Values")
+		public static final Values values = null;
+	}
+
+	private static final int THREADS = 8;
+	private static final AtomicInteger conversions = new AtomicInteger();
+
+	private static Path path;
+
+	@BeforeClass
+	public static void setUp() throws IOException {
+		TypeAdapters.register(Expensive.class, new TypeAdapter() {
+			@Override
+			public Object getValue(
+					CommentedFileConfig config, List<String> path, Object defaultValue
+			) {
+				conversions.incrementAndGet();
+				return new Expensive(config.get(path));
+			}
+
+			@Override
+			public void setValue(CommentedFileConfig config, List<String> path, Object value) {
+				config.set(path, ((Expensive) value).name);
+			}
+		});
+
+		ConfigManager.setDirectory(
+				Deferred.class, Files.createTempDirectory("trlutils-config-lazy")
+		);
+		ConfigManager.register(Deferred.class);
+		path = ConfigManager.getPath(Deferred.class);
+	}
+
+	@Before
+	public void reset() throws IOException {
+		//Changes the raw value twice so that each test starts with an unresolved value
+		write("initial");
+		write("custom");
+		conversions.set(0);
+	}
+
+	@Test
+	public void valuesAreResolvedOnce() throws InterruptedException {
+		final Lazy<Expensive> lazy = Deferred.Values.expensive;
+		assertFalse(lazy.isResolved());
+		assertEquals(0, conversions.get());
+
+		final CountDownLatch start = new CountDownLatch(1);
+		final Thread[] threads = new Thread[THREADS];
+		final Expensive[] values = new Expensive[THREADS];
+
+		for (int i = 0; i < THREADS; i++) {
+			final int index = i;
+			threads[i] = new Thread(() -> {
+				try {
+					start.await();
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+
+				values[index] = lazy.get();
+			});
+			threads[i].start();
+		}
+
+		start.countDown();
+
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertEquals(1, conversions.get());
+		assertEquals("custom", values[0].name);
+
+		for (Expensive value : values) {
+			assertSame(values[0], value);
+		}
+	}
+
+	@Test
+	public void unchangedRawValuesKeepTheResolvedValue() throws IOException {
+		final Lazy<Expensive> lazy = Deferred.Values.expensive;
+		lazy.get();
+
+		write("custom");
+
+		assertSame(lazy, Deferred.Values.expensive);
+		assertTrue(lazy.isResolved());
+		assertEquals(1, conversions.get());
+	}
+
+	@Test
+	public void changedRawValuesAreResolvedAgain() throws IOException {
+		final Lazy<Expensive> lazy = Deferred.Values.expensive;
+		lazy.get();
+
+		write("changed");
+
+		assertNotSame(lazy, Deferred.Values.expensive);
+		assertFalse(Deferred.Values.expensive.isResolved());
+		assertEquals("changed", Deferred.Values.expensive.get().name);
+		assertEquals(2, conversions.get());
+	}
+
+	@Test
+	public void unresolvedValuesAreWrittenAsTheyWereRead() throws IOException {
+		ConfigManager.writeToDisk(Deferred.class);
+
+		assertFalse(Deferred.Values.expensive.isResolved());
+		assertTrue(
+				new String(Files.readAllBytes(path), StandardCharsets.UTF_8).
+						contains("expensive = \"custom\"")
+		);
+	}
+
+	private static void write(String value) throws IOException {
+		Files.write(
+				path,
+				("[values]\n\texpensive = \"" + value + "\"\n").getBytes(StandardCharsets.UTF_8)
+		);
+		ConfigManager.reloadFromDisk(Deferred.class, true);
+	}
+}
@@ -0,0 +1,100 @@
+package com.therandomlabs.utils.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import com.electronwill.nightconfig.core.file.CommentedFileConfig;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class LowMemoryTest {
+	@Config(id = "lowmemorytest", comment = "Released trees")
+	public static final class Released {
+		public static final class Values {
+			@Config.Property("An int")
+			public static int anInt = 1;
+
+			@Config.Property("A string")
+			public static String string = "value";
+		}
+
+		@Config.Category("Values")
+		public static final Values values = null;
+	}
+
+	@BeforeClass
+	public static void setUp() throws IOException {
+		ConfigManager.setLowMemoryMode(true);
+		ConfigManager.setDirectory(
+				Released.class, Files.createTempDirectory("trlutils-config-lowmemory")
+		);
+		ConfigManager.register(Released.class);
+	}
+
+	@AfterClass
+	public static void tearDown() {
+		ConfigManager.setLowMemoryMode(false);
+	}
+
+	@Before
+	public void reset() {
+		Released.Values.anInt = 1;
+		Released.Values.string = "value";
+		ConfigManager.writeToDisk(Released.class);
+	}
+
+	//Fields that are set directly are only reflected in a tree that is rebuilt after the
+	//previous tree has been released
+	@Test
+	public void getRebuildsReleasedTrees() {
+		Released.Values.anInt = 5;
+		final CommentedFileConfig config = ConfigManager.get(Released.class);
+		assertEquals(5, config.getInt("values.anInt"));
+
+		//The rebuilt tree is kept until the next write
+		Released.Values.anInt = 6;
+		assertSame(config, ConfigManager.get(Released.class));
+
+		ConfigManager.writeToDisk(Released.class);
+		Released.Values.anInt = 7;
+		final CommentedFileConfig rebuilt = ConfigManager.get(Released.class);
+		assertNotSame(config, rebuilt);
+		assertEquals(7, rebuilt.getInt("values.anInt"));
+	}
+
+	@Test
+	public void writesAreBuiltFromTheFields() throws IOException {
+		Released.Values.string = "written";
+		ConfigManager.writeToDisk(Released.class);
+
+		final String contents = new String(
+				Files.readAllBytes(ConfigManager.getPath(Released.class)), StandardCharsets.UTF_8
+		);
+		assertTrue(contents.contains("string = \"written\""));
+		assertTrue(contents.contains("# Released trees"));
+	}
+
+	@Test
+	public void reloadsAreAppliedAfterTheTreeIsReleased() throws IOException {
+		final String contents = new String(
+				Files.readAllBytes(ConfigManager.getPath(Released.class)), StandardCharsets.UTF_8
+		);
+		Files.write(
+				ConfigManager.getPath(Released.class),
+				contents.replace("anInt = 1", "anInt = 3").getBytes(StandardCharsets.UTF_8)
+		);
+
+		ConfigManager.reloadFromDisk(Released.class, true);
+
+		assertEquals(3, Released.Values.anInt);
+		assertEquals(3, ConfigManager.get(Released.class).getInt("values.anInt"));
+	}
+}
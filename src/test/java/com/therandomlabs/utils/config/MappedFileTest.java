@@ -0,0 +1,90 @@
+package com.therandomlabs.utils.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.stream.Stream;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class MappedFileTest {
+	@Config(id = "mappedfiletest", comment = "Sidecar files")
+	public static final class Mapped {
+		public static final class Values {
+			@Config.Property("Packed ints")
+			public static MappedIntArray ints = MappedIntArray.of("ints.bin");
+
+			@Config.Property("Packed longs")
+			public static MappedLongArray longs = MappedLongArray.of("longs.bin");
+
+			@Config.Property("An int")
+			public static int anInt = 1;
+		}
+
+		@Config.Category("Values")
+		public static final Values values = null;
+	}
+
+	private static Path directory;
+
+	@BeforeClass
+	public static void setUp() throws IOException {
+		directory = Files.createTempDirectory("trlutils-config-mapped");
+		ConfigManager.setDirectory(Mapped.class, directory);
+		ConfigManager.register(Mapped.class);
+
+		try (Stream<Path> files = Files.walk(directory)) {
+			directory = files.filter(path -> path.toString().endsWith(".toml")).findFirst().
+					orElseThrow(IllegalStateException::new).getParent();
+		}
+	}
+
+	@Test
+	public void validSidecarsAreMapped() throws IOException {
+		replace("ints.bin", ByteBuffer.allocate(8).putInt(3).putInt(7).array());
+		ConfigManager.reloadFromDisk(Mapped.class, true);
+
+		assertEquals(2, Mapped.Values.ints.size());
+		assertTrue(Mapped.Values.ints.contains(7));
+	}
+
+	@Test
+	public void invalidSidecarsFallBackToTheDefault() throws IOException {
+		replace("longs.bin", new byte[12]);
+		Mapped.Values.anInt = 5;
+		ConfigManager.writeToDisk(Mapped.class);
+
+		ConfigManager.reloadFromDisk(Mapped.class, true);
+
+		assertEquals(0, Mapped.Values.longs.size());
+		assertEquals(5, Mapped.Values.anInt);
+	}
+
+	@Test
+	public void sidecarsReplacedWithTheSameSizeAndModificationTimeAreMappedAgain()
+			throws IOException {
+		replace("ints.bin", ByteBuffer.allocate(4).putInt(1).array());
+		ConfigManager.reloadFromDisk(Mapped.class, true);
+		final FileTime modified = Files.getLastModifiedTime(directory.resolve("ints.bin"));
+
+		replace("ints.bin", ByteBuffer.allocate(4).putInt(2).array());
+		Files.setLastModifiedTime(directory.resolve("ints.bin"), modified);
+		ConfigManager.reloadFromDisk(Mapped.class, true);
+
+		assertEquals(2, Mapped.Values.ints.get(0));
+	}
+
+	//Sidecar files are mapped, so they are replaced rather than rewritten in place
+	private static void replace(String name, byte[] contents) throws IOException {
+		final Path temporary = Files.createTempFile(directory, name, ".tmp");
+		Files.write(temporary, contents);
+		Files.move(temporary, directory.resolve(name), StandardCopyOption.ATOMIC_MOVE);
+	}
+}
@@ -0,0 +1,115 @@
+package com.therandomlabs.utils.config;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ParallelReloadTest {
+	@Config(id = "parallelreloadtest", comment = "Parallel reloads")
+	public static final class Parallel {
+		public static final class First {
+			@Config.Property("An int")
+			public static int anInt = 1;
+
+			@Config.Property("Ints")
+			public static int[] ints = {1, 2};
+
+			public static void onReload() {
+				record("first");
+			}
+		}
+
+		public static final class Second {
+			@Config.Property("A double")
+			public static double aDouble = 0.5;
+
+			public static void onReload() {
+				record("second");
+			}
+		}
+
+		public static final class Third {
+			@Config.Property("A string")
+			public static String string = "value";
+
+			@Config.Property("A long")
+			public static long aLong = 2L;
+
+			public static void onReload() {
+				record("third");
+			}
+		}
+
+		@Config.Category("First")
+		public static final First first = null;
+
+		@Config.Category("Second")
+		public static final Second second = null;
+
+		@Config.Category("Third")
+		public static final Third third = null;
+	}
+
+	private static final int ITERATIONS = 50;
+	private static final List<String> reloaded = new ArrayList<>();
+
+	@BeforeClass
+	public static void setUp() throws IOException {
+		ConfigManager.setDirectory(
+				Parallel.class, Files.createTempDirectory("trlutils-config-parallel")
+		);
+		ConfigManager.register(Parallel.class);
+	}
+
+	@Test
+	public void callbacksAreCalledInOrderOnTheCallingThread() throws IOException {
+		final ForkJoinPool pool = new ForkJoinPool(4);
+		ConfigManager.setReloadPool(pool);
+
+		try {
+			for (int i = 0; i < ITERATIONS; i++) {
+				Files.write(
+						ConfigManager.getPath(Parallel.class),
+						("[first]\n\tanInt = " + i + "\n\tints = [" + i + ", " + (i + 1) + "]\n" +
+								"[second]\n\taDouble = " + i + ".5\n" +
+								"[third]\n\tstring = \"value" + i + "\"\n\taLong = " + i + "\n").
+								getBytes(StandardCharsets.UTF_8)
+				);
+				reloaded.clear();
+
+				ConfigManager.reloadFromDisk(Parallel.class, true);
+
+				assertEquals(
+						Arrays.asList(
+								"first " + Thread.currentThread().getName(),
+								"second " + Thread.currentThread().getName(),
+								"third " + Thread.currentThread().getName()
+						),
+						reloaded
+				);
+				assertEquals(i, Parallel.First.anInt);
+				assertArrayEquals(new int[] {i, i + 1}, Parallel.First.ints);
+				assertEquals(i + 0.5, Parallel.Second.aDouble, 0.0);
+				assertEquals("value" + i, Parallel.Third.string);
+				assertEquals(i, Parallel.Third.aLong);
+			}
+		} finally {
+			ConfigManager.setReloadPool(null);
+			pool.shutdown();
+		}
+	}
+
+	private static void record(String category) {
+		reloaded.add(category + " " + Thread.currentThread().getName());
+	}
+}
@@ -0,0 +1,140 @@
+package com.therandomlabs.utils.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.electronwill.nightconfig.core.file.CommentedFileConfig;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class PropertyPathTest {
+	public static final class Named {
+		final String value;
+
+		Named(String value) {
+			this.value = value;
+		}
+
+		@Override
+		public String toString() {
+			return value;
+		}
+	}
+
+	public static final class Pathed {
+		final String value;
+
+		Pathed(String value) {
+			this.value = value;
+		}
+
+		@Override
+		public String toString() {
+			return value;
+		}
+	}
+
+	@Config(id = "propertypathtest", comment = "Property paths")
+	public static final class Paths {
+		public static final class Values {
+			@Config.Property("A value read by name")
+			public static Named named = new Named("default");
+
+			@Config.Property("A value read by path")
+			public static Pathed pathed = new Pathed("default");
+
+			@Config.Previous("values.oldInt")
+			@Config.Property("A renamed int")
+			public static int anInt = 1;
+		}
+
+		@Config.Category("Values")
+		public static final Values values = null;
+	}
+
+	private static final List<String> names = new ArrayList<>();
+	private static final List<List<String>> paths = new ArrayList<>();
+
+	@BeforeClass
+	public static void setUp() throws IOException {
+		//Only overrides the name-based overloads, like adapters written before paths were
+		//precomputed
+		TypeAdapters.register(Named.class, new TypeAdapter() {
+			@Override
+			public Object getValue(CommentedFileConfig config, String name, Object defaultValue) {
+				names.add(name);
+				return new Named(config.get(name));
+			}
+
+			@Override
+			public void setValue(CommentedFileConfig config, String name, Object value) {
+				config.set(name, ((Named) value).value);
+			}
+		});
+
+		TypeAdapters.register(Pathed.class, new TypeAdapter() {
+			@Override
+			public Object getValue(
+					CommentedFileConfig config, List<String> path, Object defaultValue
+			) {
+				paths.add(path);
+				return new Pathed(config.get(path));
+			}
+
+			@Override
+			public void setValue(CommentedFileConfig config, List<String> path, Object value) {
+				config.set(path, ((Pathed) value).value);
+			}
+		});
+
+		final Path directory = Files.createTempDirectory("trlutils-config-paths");
+		Files.write(
+				directory.resolve("propertypathtest.toml"),
+				("[values]\n\tnamed = \"custom\"\n\tpathed = \"custom\"\n\toldInt = 4\n").
+						getBytes(StandardCharsets.UTF_8)
+		);
+		ConfigManager.setDirectory(Paths.class, directory);
+		ConfigManager.register(Paths.class);
+	}
+
+	@Test
+	public void nameBasedAdaptersAreCalledWithNames() {
+		names.clear();
+		ConfigManager.reloadFromDisk(Paths.class, true);
+
+		assertEquals("custom", Paths.Values.named.value);
+		assertTrue(names.contains("values.named"));
+	}
+
+	@Test
+	public void pathBasedAdaptersAreCalledWithPrecomputedPaths() {
+		paths.clear();
+		ConfigManager.reloadFromDisk(Paths.class, true);
+		ConfigManager.reloadFromDisk(Paths.class, true);
+
+		assertEquals("custom", Paths.Values.pathed.value);
+		assertEquals(Arrays.asList("values", "pathed"), paths.get(0));
+		assertSame(paths.get(0), paths.get(paths.size() - 1));
+	}
+
+	@Test
+	public void previousNamesAreMigrated() throws IOException {
+		assertEquals(4, Paths.Values.anInt);
+
+		final String contents = new String(
+				Files.readAllBytes(ConfigManager.getPath(Paths.class)), StandardCharsets.UTF_8
+		);
+		assertTrue(contents.contains("anInt = 4"));
+		assertFalse(contents.contains("oldInt"));
+	}
+}
@@ -0,0 +1,82 @@
+package com.therandomlabs.utils.config;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+
+import com.electronwill.nightconfig.core.CommentedConfig;
+import com.electronwill.nightconfig.core.UnmodifiableConfig;
+import com.electronwill.nightconfig.toml.TomlFormat;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Test;
+
+public class RawValueCodecTest {
+	@Test
+	public void stringsLongerThan65535BytesRoundTrip() throws IOException {
+		//Three bytes per character in UTF-8
+		final String string = StringUtils.repeat('\u20AC', 100_000);
+		assertEquals(string, roundTrip(string));
+	}
+
+	@Test
+	public void listsRoundTrip() throws IOException {
+		final Object list = Arrays.asList(
+				"", "value", Long.MAX_VALUE, -1, 0.5, true, null, Arrays.asList('a', (byte) 1)
+		);
+		assertEquals(list, roundTrip(list));
+	}
+
+	@Test
+	public void datesAndTablesRoundTrip() throws IOException {
+		final CommentedConfig table = TomlFormat.newConfig();
+		table.set("key", 1);
+		table.valueMap().put("dotted.key", Arrays.asList(LocalDate.of(2020, 1, 2)));
+
+		final List<Object> list = Arrays.asList(
+				LocalTime.of(10, 15), LocalDateTime.of(2020, 1, 2, 10, 15, 30, 5),
+				OffsetDateTime.of(2020, 1, 2, 10, 15, 30, 0, ZoneOffset.ofHours(2)), table
+		);
+		final List<?> read = (List<?>) roundTrip(list);
+
+		assertEquals(list.subList(0, 3), read.subList(0, 3));
+		assertEquals(table.valueMap(), ((UnmodifiableConfig) read.get(3)).valueMap());
+	}
+
+	@Test(expected = ConfigException.class)
+	public void unsupportedValuesAreRejected() throws IOException {
+		roundTrip(new Object());
+	}
+
+	@Test
+	public void varIntsRoundTrip() throws IOException {
+		for (int value : new int[] {0, 1, -1, 63, -64, 64, Integer.MAX_VALUE, Integer.MIN_VALUE}) {
+			final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			RawValueCodec.writeVarInt(new DataOutputStream(bytes), value);
+			assertEquals(
+					value,
+					RawValueCodec.readVarInt(
+							new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))
+					)
+			);
+		}
+	}
+
+	private static Object roundTrip(Object value) throws IOException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		RawValueCodec.write(new DataOutputStream(bytes), value);
+		return RawValueCodec.read(
+				new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))
+		);
+	}
+}
@@ -0,0 +1,227 @@
+package com.therandomlabs.utils.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.electronwill.nightconfig.core.file.CommentedFileConfig;
+import com.electronwill.nightconfig.toml.TomlFormat;
+import org.junit.Test;
+
+//Runs reader threads against continuous reloadFromDisk and writeToDisk cycles on a synthetic
+//schema and reports reader throughput and reload and write latency percentiles.
+//Each cycle sets every int property in the file to the next generation number before
+//reloading it, so a reader that observes int properties with different values, either in the
+//fields or in the tree returned by get, has observed a partially applied reload.
+public class ReloadStressTest {
+	private static final int CATEGORIES = 8;
+	private static final int PROPERTIES_PER_CATEGORY = 16;
+	private static final int READERS = Math.max(4, Runtime.getRuntime().availableProcessors());
+	private static final long DURATION_MILLIS = 3000;
+	//Readers that deadlock are daemon threads, so they do not prevent the JVM from exiting
+	private static final long TIMEOUT_MILLIS = 60000;
+
+	@Test(timeout = TIMEOUT_MILLIS)
+	public void readersObserveCompleteReloads() throws Exception {
+		stress("");
+	}
+
+	//Trees are released after every write, so readers rebuild them in get, which must not
+	//deadlock when read has fallen back to the read lock
+	@Test(timeout = TIMEOUT_MILLIS)
+	public void readersObserveCompleteReloadsInLowMemoryMode() throws Exception {
+		ConfigManager.setLowMemoryMode(true);
+
+		try {
+			stress(" in low memory mode");
+		} finally {
+			ConfigManager.setLowMemoryMode(false);
+		}
+	}
+
+	private static void stress(String mode) throws Exception {
+		final SyntheticSchema schema = SyntheticSchema.generate(
+				CATEGORIES, PROPERTIES_PER_CATEGORY
+		);
+		schema.register();
+
+		final List<Field> fields = new ArrayList<>();
+		final List<String> paths = new ArrayList<>();
+
+		for (int i = 0; i < schema.fields.size(); i++) {
+			final Field field = schema.fields.get(i);
+
+			if (field.getType() == int.class) {
+				fields.add(field);
+				paths.add(
+						"category" + i / PROPERTIES_PER_CATEGORY + ".property" +
+								i % PROPERTIES_PER_CATEGORY
+				);
+			}
+		}
+
+		final AtomicBoolean running = new AtomicBoolean(true);
+		final AtomicLong reads = new AtomicLong();
+		final Queue<Throwable> failures = new ConcurrentLinkedQueue<>();
+		final List<Long> reloadLatencies = new ArrayList<>();
+		final List<Long> writeLatencies = new ArrayList<>();
+
+		cycle(schema.clazz, paths, 0, reloadLatencies, writeLatencies);
+
+		final Thread[] readers = new Thread[READERS];
+
+		for (int i = 0; i < READERS; i++) {
+			readers[i] = new Thread(() -> {
+				long previous = 0;
+
+				try {
+					while (running.get()) {
+						final long generation = ConfigManager.read(
+								schema.clazz, () -> getGeneration(schema.clazz, fields, paths)
+						);
+
+						if (generation == -1) {
+							throw new AssertionError("Observed a partially applied reload");
+						}
+
+						if (generation < previous) {
+							throw new AssertionError(
+									"Generation went from " + previous + " to " + generation
+							);
+						}
+
+						previous = generation;
+						reads.incrementAndGet();
+					}
+				} catch (Throwable throwable) {
+					failures.add(throwable);
+				}
+			}, "ReloadStressTest reader " + i);
+			readers[i].setDaemon(true);
+			readers[i].start();
+		}
+
+		final long start = System.nanoTime();
+		final long end = start + TimeUnit.MILLISECONDS.toNanos(DURATION_MILLIS);
+		int generation = 0;
+
+		try {
+			while (System.nanoTime() < end && failures.isEmpty()) {
+				cycle(schema.clazz, paths, ++generation, reloadLatencies, writeLatencies);
+			}
+		} finally {
+			running.set(false);
+
+			for (Thread reader : readers) {
+				reader.join();
+			}
+		}
+
+		final double seconds = (System.nanoTime() - start) / 1.0E9;
+		System.out.printf(
+				"ReloadStressTest: %d readers, %d properties%s: %.0f reads/s, %d cycles%n",
+				READERS, schema.getPropertyCount(), mode, reads.get() / seconds, generation
+		);
+		printPercentiles("reloadFromDisk", reloadLatencies);
+		printPercentiles("writeToDisk", writeLatencies);
+
+		for (Throwable failure : failures) {
+			failure.printStackTrace();
+		}
+
+		assertTrue(failures.size() + " reader(s) failed: " + failures.peek(), failures.isEmpty());
+		assertTrue(reads.get() > 0);
+
+		final long last = generation;
+		assertEquals(
+				last, (long) ConfigManager.read(
+						schema.clazz, () -> getGeneration(schema.clazz, fields, paths)
+				)
+		);
+	}
+
+	//Sets every int property in the file to the generation, then reloads and writes the
+	//configuration
+	private static void cycle(
+			Class<?> clazz, List<String> paths, int generation, List<Long> reloadLatencies,
+			List<Long> writeLatencies
+	) throws IOException {
+		final CommentedFileConfig config = CommentedFileConfig.builder(
+				ConfigManager.getPath(clazz), TomlFormat.instance()
+		).build();
+		config.load();
+
+		for (String path : paths) {
+			config.set(path, generation);
+		}
+
+		config.save();
+		config.close();
+
+		//The reload is forced because the file may be rewritten within the resolution of its
+		//modification time
+		long time = System.nanoTime();
+		ConfigManager.reloadFromDisk(clazz, true);
+		reloadLatencies.add(System.nanoTime() - time);
+
+		time = System.nanoTime();
+		ConfigManager.writeToDisk(clazz);
+		writeLatencies.add(System.nanoTime() - time);
+	}
+
+	//Returns the generation of the int properties, or -1 if the fields and the tree do not all
+	//hold the same generation.
+	//This does not throw because read may run it while a reload is in progress and discard
+	//the result.
+	private static long getGeneration(Class<?> clazz, List<Field> fields, List<String> paths) {
+		final CommentedFileConfig config = ConfigManager.get(clazz);
+		final long[] values = new long[fields.size() * 2];
+
+		try {
+			for (int i = 0; i < fields.size(); i++) {
+				values[i * 2] = fields.get(i).getInt(null);
+				values[i * 2 + 1] = config.<Number>get(paths.get(i)).longValue();
+			}
+		} catch (IllegalAccessException ex) {
+			throw new AssertionError(ex);
+		}
+
+		for (long value : values) {
+			if (value != values[0]) {
+				return -1;
+			}
+		}
+
+		return values[0];
+	}
+
+	private static void printPercentiles(String operation, List<Long> latencies) {
+		final long[] sorted = new long[latencies.size()];
+
+		for (int i = 0; i < sorted.length; i++) {
+			sorted[i] = latencies.get(i);
+		}
+
+		Arrays.sort(sorted);
+		System.out.printf(
+				"ReloadStressTest: %s latency: p50 %.3f ms, p90 %.3f ms, p99 %.3f ms, " +
+						"max %.3f ms%n",
+				operation, getPercentile(sorted, 0.5), getPercentile(sorted, 0.9),
+				getPercentile(sorted, 0.99), sorted[sorted.length - 1] / 1.0E6
+		);
+	}
+
+	private static double getPercentile(long[] sorted, double percentile) {
+		return sorted[(int) Math.ceil(percentile * sorted.length) - 1] / 1.0E6;
+	}
+}
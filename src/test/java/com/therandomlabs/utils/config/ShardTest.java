@@ -0,0 +1,96 @@
+package com.therandomlabs.utils.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ShardTest {
+	@Config(id = "shardtest", comment = "Shards", sharded = true)
+	public static final class Sharded {
+		public static final class First {
+			@Config.Property("A value")
+			public static int value = 1;
+		}
+
+		public static final class Second {
+			@Config.Property("A value")
+			public static int value = 2;
+		}
+
+		@Config.Category("The first shard")
+		public static final First first = null;
+
+		@Config.Category("The second shard")
+		public static final Second second = null;
+	}
+
+	private static Path directory;
+
+	@BeforeClass
+	public static void setUp() throws IOException {
+		directory = Files.createTempDirectory("trlutils-config-shards");
+		ConfigManager.setDirectory(Sharded.class, directory);
+		ConfigManager.register(Sharded.class);
+	}
+
+	@Before
+	public void reset() {
+		Sharded.First.value = 1;
+		Sharded.Second.value = 2;
+		ConfigManager.writeToDisk(Sharded.class);
+	}
+
+	@Test
+	public void editedShardsAreRewritten() throws IOException {
+		final Path shard = getShard("first");
+		final String toml = read(shard);
+
+		Files.write(shard, toml.replace("value = 1", "value = 5").getBytes(StandardCharsets.UTF_8));
+		ConfigManager.writeToDisk(Sharded.class);
+
+		assertEquals(toml, read(shard));
+	}
+
+	@Test
+	public void shardReloadsApplyAndCompactTheJournal() throws IOException {
+		ConfigManager.set(Sharded.class, "first.value", 3);
+		ConfigManager.set(Sharded.class, "second.value", 4);
+		assertTrue(Files.exists(getJournal()));
+
+		ConfigManager.reloadFromDisk(Sharded.class, "first");
+
+		assertEquals(3, Sharded.First.value);
+		assertEquals(4, Sharded.Second.value);
+		assertTrue(read(getShard("first")).contains("value = 3"));
+		assertTrue(read(getShard("second")).contains("value = 4"));
+		assertFalse(Files.exists(getJournal()));
+	}
+
+	private static Path getShard(String shard) throws IOException {
+		try (Stream<Path> files = Files.walk(directory)) {
+			return files.filter(path -> path.getFileName().toString().equals(shard + ".toml")).
+					findFirst().orElseThrow(IllegalStateException::new);
+		}
+	}
+
+	private static Path getJournal() throws IOException {
+		try (Stream<Path> files = Files.walk(directory)) {
+			return files.filter(path -> path.getFileName().toString().endsWith(".journal")).
+					findFirst().orElse(directory.resolve("missing.journal"));
+		}
+	}
+
+	private static String read(Path path) throws IOException {
+		return new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+	}
+}
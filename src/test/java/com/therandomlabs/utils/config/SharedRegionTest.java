@@ -0,0 +1,24 @@
+package com.therandomlabs.utils.config;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import org.junit.Test;
+
+public class SharedRegionTest {
+	@Test(expected = ConfigException.class)
+	public void secondPublisherInTheSameProcessIsRejected() throws IOException {
+		final Path directory = Files.createTempDirectory("trlutils-config-regions");
+		final Path path = directory.resolve("region.toml");
+		final ConfigData data = new ConfigData(
+				new String[] {"Shared region"}, SharedRegionTest.class, path.toString(), path,
+				Collections.emptyList(), false, Config.Compression.NONE
+		);
+		final Path region = directory.resolve("region.region");
+
+		SharedRegion.publisher(region, data);
+		SharedRegion.publisher(region, data);
+	}
+}
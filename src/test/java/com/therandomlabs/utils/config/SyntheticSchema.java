@@ -0,0 +1,138 @@
+package com.therandomlabs.utils.config;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+//Generates and compiles configuration classes with a given number of categories and properties
+//so that tests can measure how costs scale with schema size.
+//Property types cycle through PROPERTY_TYPES, so every schema mixes primitives, strings,
+//arrays and enums.
+final class SyntheticSchema {
+	static final String[][] PROPERTY_TYPES = {
+			{"int", "42"},
+			{"long", "9007199254740993L"},
+			{"double", "0.25"},
+			{"boolean", "true"},
+			{"String", "\"value\""},
+			{"int[]", "{1, 2, 3, 4}"},
+			{"String[]", "{\"a\", \"b\", \"c\"}"},
+			{"java.util.concurrent.TimeUnit", "java.util.concurrent.TimeUnit.SECONDS"}
+	};
+
+	private static int count;
+
+	final Class<?> clazz;
+	final Path directory;
+	final int categories;
+	final int propertiesPerCategory;
+	//Every property field in declaration order
+	final List<Field> fields;
+
+	private SyntheticSchema(
+			Class<?> clazz, Path directory, int categories, int propertiesPerCategory,
+			List<Field> fields
+	) {
+		this.clazz = clazz;
+		this.directory = directory;
+		this.categories = categories;
+		this.propertiesPerCategory = propertiesPerCategory;
+		this.fields = fields;
+	}
+
+	int getPropertyCount() {
+		return categories * propertiesPerCategory;
+	}
+
+	//Registers the generated class with ConfigManager using its own configuration directory
+	void register() {
+		ConfigManager.setDirectory(clazz, directory);
+		ConfigManager.register(clazz);
+	}
+
+	//Compiles the schema into a temporary directory, which is also used as the configuration
+	//directory
+	static synchronized SyntheticSchema generate(int categories, int propertiesPerCategory)
+			throws IOException, ReflectiveOperationException {
+		final String name = "Synthetic" + count++;
+		final Path directory = Files.createTempDirectory("trlutils-config-" + name);
+		final Path source = directory.resolve("synthetic").resolve(name + ".java");
+		Files.createDirectories(source.getParent());
+		Files.write(
+				source,
+				getSource(name, categories, propertiesPerCategory).
+						getBytes(StandardCharsets.UTF_8)
+		);
+
+		final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+
+		if (compiler == null) {
+			throw new IllegalStateException("Synthetic schemas must be compiled with a JDK");
+		}
+
+		final int result = compiler.run(
+				null, null, null, "-classpath", System.getProperty("java.class.path"), "-d",
+				directory.toString(), source.toString()
+		);
+
+		if (result != 0) {
+			throw new IllegalStateException("Failed to compile synthetic schema " + name);
+		}
+
+		final ClassLoader loader = new URLClassLoader(
+				new URL[] {directory.toUri().toURL()}, SyntheticSchema.class.getClassLoader()
+		);
+		final Class<?> clazz = Class.forName("synthetic." + name, true, loader);
+		final List<Field> fields = new ArrayList<>();
+
+		for (int i = 0; i < categories; i++) {
+			final Class<?> category = Class.forName(
+					"synthetic." + name + "$Category" + i, true, loader
+			);
+
+			for (int j = 0; j < propertiesPerCategory; j++) {
+				fields.add(category.getField("property" + j));
+			}
+		}
+
+		return new SyntheticSchema(
+				clazz, directory.resolve("config"), categories, propertiesPerCategory,
+				Collections.unmodifiableList(fields)
+		);
+	}
+
+	private static String getSource(String name, int categories, int propertiesPerCategory) {
+		final StringBuilder source = new StringBuilder("package synthetic;\n\n").
+				append("import com.therandomlabs.utils.config.Config;\n\n").
+				append("@Config(id = \"").append(name.toLowerCase()).
+				append("\", comment = \"Synthetic schema\")\n").
+				append("public final class ").append(name).append(" {\n");
+
+		for (int i = 0; i < categories; i++) {
+			source.append("\tpublic static final class Category").append(i).append(" {\n");
+
+			for (int j = 0; j < propertiesPerCategory; j++) {
+				final String[] type = PROPERTY_TYPES[(i + j) % PROPERTY_TYPES.length];
+				source.append("\t\t@Config.Property(\"Property ").append(j).append("\")\n").
+						append("\t\tpublic static ").append(type[0]).append(" property").
+						append(j).append(" = ").append(type[1]).append(";\n");
+			}
+
+			source.append("\t}\n\n\t@Config.Category(\"Category ").append(i).append("\")\n").
+					append("\tpublic static final Category").append(i).append(" category").
+					append(i).append(" = null;\n");
+		}
+
+		return source.append("}\n").toString();
+	}
+}
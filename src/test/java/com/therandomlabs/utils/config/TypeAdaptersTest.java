@@ -0,0 +1,103 @@
+package com.therandomlabs.utils.config;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.electronwill.nightconfig.core.file.CommentedFileConfig;
+import org.junit.Test;
+
+public class TypeAdaptersTest {
+	@Config(id = "globtest", comment = "Globs")
+	public static final class Globs {
+		public static final class Values {
+			@Config.Property("Path matchers")
+			public static PathMatcher[] matchers = {Glob.of("*.txt"), Glob.of("*.md")};
+		}
+
+		@Config.Category("Values")
+		public static final Values values = null;
+	}
+
+	@Config(id = "invalidglobtest", comment = "Invalid globs")
+	public static final class InvalidGlobs {
+		public static final class Values {
+			@Config.Property("Path matchers, one of which cannot be written back")
+			public static PathMatcher[] matchers = {
+					Glob.of("*.txt"), FileSystems.getDefault().getPathMatcher("glob:*.md")
+			};
+		}
+
+		@Config.Category("Values")
+		public static final Values values = null;
+	}
+
+	private static final List<String> PATH = Collections.singletonList("value");
+
+	@Test
+	public void longArrayElementsAreNotRounded() {
+		final CommentedFileConfig config = createConfig(
+				9007199254740993L, Long.MAX_VALUE, Long.MIN_VALUE + 1, 1.5
+		);
+
+		assertArrayEquals(
+				new long[] {9007199254740993L, Long.MAX_VALUE, Long.MIN_VALUE + 1, 1L},
+				(long[]) TypeAdapters.get(long[].class).getValue(config, PATH, null)
+		);
+		assertArrayEquals(
+				new Long[] {9007199254740993L, Long.MAX_VALUE, Long.MIN_VALUE + 1, 1L},
+				(Long[]) TypeAdapters.get(Long[].class).getValue(config, PATH, null)
+		);
+	}
+
+	@Test
+	public void doubleArrayElementsAreParsedAsDoubles() {
+		final CommentedFileConfig config = createConfig(0.5, 2L, 1e300);
+
+		assertArrayEquals(
+				new double[] {0.5, 2.0, 1e300},
+				(double[]) TypeAdapters.get(double[].class).getValue(config, PATH, null), 0.0
+		);
+	}
+
+	@Test
+	public void pathMatcherArraysAreWrittenAsPatterns() throws IOException {
+		register(Globs.class);
+
+		final String toml = new String(
+				Files.readAllBytes(ConfigManager.getPath(Globs.class)), StandardCharsets.UTF_8
+		);
+		assertTrue(toml, toml.contains("[\"*.txt\", \"*.md\"]"));
+
+		ConfigManager.reloadFromDisk(Globs.class, true);
+		assertArrayEquals(
+				new PathMatcher[] {Glob.of("*.txt"), Glob.of("*.md")}, Globs.Values.matchers
+		);
+	}
+
+	@Test(expected = ConfigException.class)
+	public void pathMatcherDefaultsMustBeGlobs() throws IOException {
+		register(InvalidGlobs.class);
+	}
+
+	private static void register(Class<?> clazz) throws IOException {
+		ConfigManager.setDirectory(clazz, Files.createTempDirectory("trlutils-config-globs"));
+		ConfigManager.register(clazz);
+	}
+
+	private static CommentedFileConfig createConfig(Object... elements) {
+		final CommentedFileConfig config =
+				CommentedFileConfig.builder(Paths.get("test.toml")).build();
+		config.set(PATH, Arrays.asList(elements));
+		return config;
+	}
+}
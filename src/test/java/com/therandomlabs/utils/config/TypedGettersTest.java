@@ -0,0 +1,130 @@
+package com.therandomlabs.utils.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class TypedGettersTest {
+	@Config(id = "typedgetters", comment = "Typed getters")
+	public static final class TypedGetters {
+		public static final class Values {
+			@Config.Property("A byte")
+			public static byte aByte = 1;
+
+			@Config.Property("An int")
+			public static int anInt = 2;
+
+			@Config.Property("A boxed int")
+			public static Integer boxedInt = 3;
+
+			@Config.Property("A lazy int")
+			public static Lazy<Integer> lazyInt = Lazy.of(4);
+
+			@Config.Property("A long")
+			public static long aLong = 9007199254740993L;
+
+			@Config.Property("A boxed long")
+			public static Long boxedLong = 6L;
+
+			@Config.Property("A float")
+			public static float aFloat = 0.5F;
+
+			@Config.Property("A double")
+			public static double aDouble = 0.25;
+
+			@Config.Property("A boxed double")
+			public static Double boxedDouble = 0.75;
+
+			@Config.Property("A boolean")
+			public static boolean aBoolean = true;
+
+			@Config.Property("A boxed boolean")
+			public static Boolean boxedBoolean = true;
+		}
+
+		@Config.Category("Values")
+		public static final Values values = null;
+	}
+
+	@BeforeClass
+	public static void setUp() throws IOException {
+		ConfigManager.setDirectory(
+				TypedGetters.class, Files.createTempDirectory("trlutils-config-typed-getters")
+		);
+		ConfigManager.register(TypedGetters.class);
+	}
+
+	@Test
+	public void getIntWidensSmallerIntegralTypes() {
+		assertEquals(1, getInt("aByte"));
+		assertEquals(2, getInt("anInt"));
+		assertEquals(3, getInt("boxedInt"));
+		assertEquals(4, getInt("lazyInt"));
+	}
+
+	@Test
+	public void getIntDoesNotNarrow() {
+		assertNotWidened(() -> getInt("aLong"));
+		assertNotWidened(() -> getInt("boxedLong"));
+		assertNotWidened(() -> getInt("aDouble"));
+		assertNotWidened(() -> getInt("aBoolean"));
+	}
+
+	@Test
+	public void getLongWidensIntegralTypes() {
+		assertEquals(3L, getLong("boxedInt"));
+		assertEquals(4L, getLong("lazyInt"));
+		assertEquals(9007199254740993L, getLong("aLong"));
+		assertEquals(6L, getLong("boxedLong"));
+	}
+
+	@Test
+	public void getLongDoesNotNarrow() {
+		assertNotWidened(() -> getLong("aFloat"));
+		assertNotWidened(() -> getLong("boxedDouble"));
+	}
+
+	@Test
+	public void getDoubleWidensNumericTypes() {
+		assertEquals(1.0, getDouble("aByte"), 0.0);
+		assertEquals(4.0, getDouble("lazyInt"), 0.0);
+		assertEquals(6.0, getDouble("boxedLong"), 0.0);
+		assertEquals(0.5, getDouble("aFloat"), 0.0);
+		assertEquals(0.75, getDouble("boxedDouble"), 0.0);
+	}
+
+	@Test
+	public void getBooleanOnlyAcceptsBooleans() {
+		assertTrue(ConfigManager.getBoolean(TypedGetters.class, "values.aBoolean"));
+		assertTrue(ConfigManager.getBoolean(TypedGetters.class, "values.boxedBoolean"));
+		assertNotWidened(() -> ConfigManager.getBoolean(TypedGetters.class, "values.anInt"));
+		assertNotWidened(() -> getDouble("aBoolean"));
+	}
+
+	private static int getInt(String name) {
+		return ConfigManager.getInt(TypedGetters.class, "values." + name);
+	}
+
+	private static long getLong(String name) {
+		return ConfigManager.getLong(TypedGetters.class, "values." + name);
+	}
+
+	private static double getDouble(String name) {
+		return ConfigManager.getDouble(TypedGetters.class, "values." + name);
+	}
+
+	private static void assertNotWidened(Runnable getter) {
+		try {
+			getter.run();
+			fail("Expected a ConfigException");
+		} catch (ConfigException ex) {
+			assertTrue(ex.getCause() instanceof IllegalArgumentException);
+		}
+	}
+}
@@ -0,0 +1,102 @@
+package com.therandomlabs.utils.config;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ValidatorsTest {
+	@Config(id = "validatorstest", comment = "Validators")
+	public static final class Validated {
+		public static final class Values {
+			@Config.RangeInt(max = 100)
+			@Config.Property("A long with an int range")
+			public static long aLong = 1L;
+
+			@Config.RangeInt
+			@Config.Property("A double with an int range")
+			public static double aDouble = 1.0;
+
+			@Config.Property("Strings with a null element")
+			public static String[] strings = {"a", null, "b"};
+
+			@Config.Blacklist("c")
+			@Config.Property("Integers with a null element")
+			public static Integer[] integers = {1, null, 2};
+		}
+
+		@Config.Category("Values")
+		public static final Values values = null;
+	}
+
+	@BeforeClass
+	public static void setUp() throws IOException {
+		ConfigManager.setDirectory(
+				Validated.class, Files.createTempDirectory("trlutils-config-validators")
+		);
+		ConfigManager.register(Validated.class);
+	}
+
+	@Test
+	public void rangeIntLimitsLongAndDoublePropertiesToTheIntRange() {
+		ConfigManager.set(Validated.class, "values.aLong", Long.MIN_VALUE);
+		assertEquals(Integer.MIN_VALUE, Validated.Values.aLong);
+
+		ConfigManager.set(Validated.class, "values.aDouble", 1e300);
+		assertEquals(Integer.MAX_VALUE, Validated.Values.aDouble, 0.0);
+	}
+
+	@Test
+	public void arrayDefaultsMayContainNullElements() {
+		//Null elements are not written, so they are dropped once the file is read
+		ConfigManager.reloadFromDisk(Validated.class, true);
+		assertArrayEquals(new String[] {"a", "b"}, Validated.Values.strings);
+		assertArrayEquals(new Integer[] {1, 2}, Validated.Values.integers);
+	}
+
+	@Test
+	public void floatBlacklistMatchesFloatValues() {
+		final Validator validator = Validators.floating(
+				float.class, -Float.MAX_VALUE, Float.MAX_VALUE, new String[] {"0.1"}
+		);
+
+		assertNull(validator.validate(0.1F));
+		assertEquals(0.2F, validator.validate(0.2F));
+	}
+
+	@Test
+	public void floatArrayBlacklistMatchesFloatValues() {
+		final Validator validator = Validators.floating(
+				float[].class, -Float.MAX_VALUE, Float.MAX_VALUE, new String[] {"0.1"}
+		);
+
+		assertArrayEquals(
+				new float[] {0.2F, 0.3F},
+				(float[]) validator.validate(new float[] {0.1F, 0.2F, 0.3F}), 0.0F
+		);
+	}
+
+	@Test
+	public void doubleBlacklistMatchesDoubleValues() {
+		final Validator validator = Validators.floating(
+				double.class, -Double.MAX_VALUE, Double.MAX_VALUE, new String[] {"0.1"}
+		);
+
+		assertNull(validator.validate(0.1));
+		assertEquals(0.1F, (double) validator.validate((double) 0.1F), 0.0);
+	}
+
+	@Test
+	public void longRangeIsCheckedWithoutRounding() {
+		final Validator validator = Validators.integral(
+				long.class, Long.MIN_VALUE, 9007199254740992L, new String[0]
+		);
+
+		assertEquals(9007199254740992L, validator.validate(9007199254740993L));
+	}
+}